@@ -0,0 +1,156 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试使用的货物清单和集装箱
+ * 清单由固定种子生成，同样的参数每次得到同样的数据
+ */
+final class BenchmarkManifests {
+
+    /**
+     * 清单中圆柱体尺寸的分布
+     */
+    enum Distribution {
+        // 半径0.1~0.5m、高度0.3~1.5m均匀分布
+        UNIFORM,
+        // 多数为小半径，少量大半径（帕累托分布）
+        HEAVY_TAILED,
+        // 少数几种规格大量重复，常见规格占多数
+        REPEATED_SKUS,
+        // 细高与矮粗的圆柱体混合
+        TALL_THIN
+    }
+
+    // 重复规格清单中的规格数量
+    private static final int SKU_COUNT = 5;
+
+    private BenchmarkManifests() {
+    }
+
+    /**
+     * 生成均匀分布的货物清单
+     * @param size 圆柱体数量
+     * @param seed 随机种子
+     * @return 圆柱体列表
+     */
+    static List<Cylinder> generate(int size, long seed) {
+        return generate(Distribution.UNIFORM, size, seed);
+    }
+
+    /**
+     * 按指定分布生成货物清单，价值为1~100
+     * @param distribution 尺寸分布
+     * @param size 圆柱体数量
+     * @param seed 随机种子
+     * @return 圆柱体列表
+     */
+    static List<Cylinder> generate(Distribution distribution, int size, long seed) {
+        Random random = new Random(seed);
+        List<Cylinder> cylinders = new ArrayList<>(size);
+        switch (distribution) {
+            case HEAVY_TAILED:
+                for (int i = 0; i < size; i++) {
+                    // 形状参数为2的帕累托分布，最小半径0.1m，截断到1m
+                    double radius = Math.min(1.0, 0.1 / Math.sqrt(1 - random.nextDouble()));
+                    double height = 0.3 + 0.1 * random.nextInt(13);
+                    cylinders.add(cylinder(i + 1, radius, height, 1 + random.nextInt(100)));
+                }
+                break;
+            case REPEATED_SKUS:
+                double[] skuRadius = new double[SKU_COUNT];
+                double[] skuHeight = new double[SKU_COUNT];
+                double[] skuValue = new double[SKU_COUNT];
+                for (int sku = 0; sku < SKU_COUNT; sku++) {
+                    skuRadius[sku] = 0.1 + 0.05 * random.nextInt(9);
+                    skuHeight[sku] = 0.3 + 0.1 * random.nextInt(13);
+                    skuValue[sku] = 1 + random.nextInt(100);
+                }
+                for (int i = 0; i < size; i++) {
+                    // 第k种规格的出现概率约为上一种的一半
+                    int sku = 0;
+                    while (sku < SKU_COUNT - 1 && random.nextBoolean()) {
+                        sku++;
+                    }
+                    cylinders.add(cylinder(i + 1, skuRadius[sku], skuHeight[sku], skuValue[sku]));
+                }
+                break;
+            case TALL_THIN:
+                for (int i = 0; i < size; i++) {
+                    double radius;
+                    double height;
+                    if (random.nextBoolean()) {
+                        radius = 0.05 + 0.1 * random.nextDouble();
+                        height = 1.5 + 0.8 * random.nextDouble();
+                    } else {
+                        radius = 0.4 + 0.4 * random.nextDouble();
+                        height = 0.2 + 0.4 * random.nextDouble();
+                    }
+                    cylinders.add(cylinder(i + 1, radius, height, 1 + random.nextInt(100)));
+                }
+                break;
+            default:
+                for (int i = 0; i < size; i++) {
+                    double radius = 0.1 + 0.05 * random.nextInt(9);
+                    double height = 0.3 + 0.1 * random.nextInt(13);
+                    cylinders.add(cylinder(i + 1, radius, height, 1 + random.nextInt(100)));
+                }
+        }
+        return cylinders;
+    }
+
+    /**
+     * 复制清单，装箱计算会修改圆柱体的坐标
+     * @param cylinders 圆柱体列表
+     * @return 未放置状态的副本
+     */
+    static List<Cylinder> copyOf(List<Cylinder> cylinders) {
+        List<Cylinder> copy = new ArrayList<>(cylinders.size());
+        for (Cylinder cylinder : cylinders) {
+            copy.add(cylinder(cylinder.getId(), cylinder.getRadius(), cylinder.getHeight(), cylinder.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * @param shape 集装箱规格：20ft、40ft 或 cube（3m立方体）
+     * @return 集装箱
+     */
+    static Container container(String shape) {
+        switch (shape) {
+            case "20ft":
+                return container(5.9, 2.35, 2.39);
+            case "40ft":
+                return container(12.03, 2.35, 2.39);
+            case "cube":
+                return container(3, 3, 3);
+            default:
+                throw new IllegalArgumentException("未知的集装箱规格：" + shape);
+        }
+    }
+
+    private static Container container(double length, double width, double height) {
+        Container container = new Container();
+        container.setLength(length);
+        container.setWidth(width);
+        container.setHeight(height);
+        return container;
+    }
+
+    private static Cylinder cylinder(int id, double radius, double height, double value) {
+        Cylinder cylinder = new Cylinder();
+        cylinder.setId(id);
+        cylinder.setRadius(radius);
+        cylinder.setHeight(height);
+        cylinder.setValue(value);
+        cylinder.setX(-radius);
+        cylinder.setY(-radius);
+        cylinder.setZ(-height);
+        return cylinder;
+    }
+}
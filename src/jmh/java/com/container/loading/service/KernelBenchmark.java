@@ -0,0 +1,81 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 放置内核的微基准测试：单次重叠检查和单次位置查找
+ * 先按数量优先顺序尝试放置 placed 个圆柱体，再用额外的未放置圆柱体反复探测。
+ * 位置查找不会真正放置圆柱体，候选集合中不可行的位置在预热阶段即被剔除，
+ * 测得的是候选集合稳定后的探测耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KernelBenchmark {
+
+    // 探测用的圆柱体数量和重叠检查的坐标数量（2的幂，便于循环取模）
+    private static final int PROBE_ITEMS = 64;
+    private static final int PROBE_POINTS = 1024;
+
+    @Param({"50", "500", "5000"})
+    private int placed;
+
+    @Param({"20ft", "40ft"})
+    private String shape;
+
+    private LoadingService loadingService;
+    private PlacementKernel kernel;
+    private final double[] probeX = new double[PROBE_POINTS];
+    private final double[] probeY = new double[PROBE_POINTS];
+    private final double[] probeZ = new double[PROBE_POINTS];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loadingService = new LoadingService();
+        Container container = BenchmarkManifests.container(shape);
+        List<Cylinder> cylinders = BenchmarkManifests.generate(placed + PROBE_ITEMS, 42);
+        kernel = new PlacementKernel(container, cylinders);
+        for (int item = 0; item < placed; item++) {
+            if (loadingService.findValidPosition(item, kernel, "quantity")) {
+                kernel.place(item);
+            } else {
+                kernel.markUnplaced(item);
+            }
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < PROBE_POINTS; i++) {
+            probeX[i] = random.nextDouble() * container.getLength();
+            probeY[i] = random.nextDouble() * container.getWidth();
+            probeZ[i] = random.nextDouble() * container.getHeight();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean fits() {
+        int i = cursor++ & (PROBE_POINTS - 1);
+        return kernel.fits(placed + (i & (PROBE_ITEMS - 1)), probeX[i], probeY[i], probeZ[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean findValidPosition() {
+        int item = placed + (cursor++ & (PROBE_ITEMS - 1));
+        return loadingService.findValidPosition(item, kernel, "quantity");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loadingService.shutdown();
+    }
+}
@@ -0,0 +1,59 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整装箱计算的基准测试
+ * 覆盖全部策略、不同货物数量和集装箱规格，每次调用都从未放置状态的清单副本开始
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadingBenchmark {
+
+    @Param({"volume", "quantity", "id", "value", "valuemax", "layer", "anneal"})
+    private String strategy;
+
+    @Param({"50", "500", "5000"})
+    private int size;
+
+    @Param({"20ft", "40ft", "cube"})
+    private String shape;
+
+    private LoadingService loadingService;
+    private List<Cylinder> manifest;
+    private Container container;
+    private List<Cylinder> cylinders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loadingService = new LoadingService();
+        manifest = BenchmarkManifests.generate(size, 42);
+        container = BenchmarkManifests.container(shape);
+    }
+
+    // 单次调用耗时在毫秒级以上，每次调用前复制清单不影响测量
+    @Setup(Level.Invocation)
+    public void copyManifest() {
+        cylinders = BenchmarkManifests.copyOf(manifest);
+    }
+
+    @Benchmark
+    public List<Cylinder> calculateLoading() {
+        loadingService.calculateLoading(cylinders, container, strategy);
+        return cylinders;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loadingService.shutdown();
+    }
+}
@@ -0,0 +1,304 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 端到端性能回归测试
+ * 对每种清单分布和每种策略运行完整的装箱计算，记录耗时、吞吐量、内存分配量、填充率和总价值。
+ * 每个方案都检查是否可行：已放置的圆柱体两两不重叠且都在集装箱内，否则以非零状态退出。
+ * 使用 --record 写入基准文件；否则与基准文件比较，耗时或装载质量超出阈值、或基准文件不存在时以非零状态退出。
+ *
+ * 参数：
+ * --record                    记录新的基准
+ * --baseline <路径>            基准文件，默认 src/jmh/regression-baseline.json
+ * --size <数量>                每个清单的圆柱体数量，默认200
+ * --runs <次数>                每个组合的测量次数（另有一次预热），取中位数，默认3
+ * --time-tolerance <比例>       耗时允许增加的比例，默认0.25
+ * --time-slack-ms <毫秒>        耗时增加不超过该值时不视为回归，默认5
+ * --quality-tolerance <比例>    填充率和总价值允许下降的比例，默认0.01
+ */
+public final class RegressionRunner {
+
+    private static final String[] STRATEGIES = {"volume", "quantity", "id", "value", "valuemax", "layer", "anneal"};
+    private static final String CONTAINER = "20ft";
+    private static final long SEED = 42;
+
+    private String baselinePath = "src/jmh/regression-baseline.json";
+    private boolean record;
+    private int size = 200;
+    private int runs = 3;
+    private double timeTolerance = 0.25;
+    private double timeSlackMs = 5;
+    private double qualityTolerance = 0.01;
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private RegressionRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        RegressionRunner runner = new RegressionRunner();
+        runner.parseArguments(args);
+        System.exit(runner.run() ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--record":
+                    record = true;
+                    break;
+                case "--baseline":
+                    baselinePath = args[++i];
+                    break;
+                case "--size":
+                    size = Integer.parseInt(args[++i]);
+                    break;
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--time-tolerance":
+                    timeTolerance = Double.parseDouble(args[++i]);
+                    break;
+                case "--time-slack-ms":
+                    timeSlackMs = Double.parseDouble(args[++i]);
+                    break;
+                case "--quality-tolerance":
+                    qualityTolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+    }
+
+    // 运行全部组合，返回是否通过
+    private boolean run() throws IOException {
+        File baselineFile = new File(baselinePath);
+        if (!record && !baselineFile.exists()) {
+            System.out.println("基准文件 " + baselineFile.getPath() + " 不存在，请检查 --baseline 或使用 --record 记录基准");
+            return false;
+        }
+
+        Baseline current = new Baseline();
+        current.setSize(size);
+        current.setContainer(CONTAINER);
+        current.setSeed(SEED);
+
+        LoadingService loadingService = new LoadingService();
+        boolean feasible = true;
+        try {
+            Container container = BenchmarkManifests.container(CONTAINER);
+            for (BenchmarkManifests.Distribution distribution : BenchmarkManifests.Distribution.values()) {
+                List<Cylinder> manifest = BenchmarkManifests.generate(distribution, size, SEED);
+                for (String strategy : STRATEGIES) {
+                    WorkloadResult result = measure(loadingService, manifest, container,
+                            distribution.name().toLowerCase(Locale.ROOT), strategy);
+                    feasible &= result.getViolations() == 0;
+                    current.getResults().add(result);
+                }
+            }
+        } finally {
+            loadingService.shutdown();
+        }
+
+        // 不可行的方案不能作为基准，也不能算作装载质量提高
+        if (!feasible) {
+            System.out.println("存在重叠或超出集装箱的方案，性能回归测试未通过");
+            return false;
+        }
+        if (record) {
+            mapper.writeValue(baselineFile, current);
+            System.out.println("基准已写入 " + baselineFile.getPath());
+            return true;
+        }
+        return compare(mapper.readValue(baselineFile, Baseline.class), current);
+    }
+
+    private WorkloadResult measure(LoadingService loadingService, List<Cylinder> manifest, Container container,
+                                   String distribution, String strategy) {
+        // 预热一次，不计入结果
+        loadingService.calculateLoading(BenchmarkManifests.copyOf(manifest), container, strategy);
+
+        long[] times = new long[runs];
+        long[] allocations = new long[runs];
+        List<Cylinder> cylinders = null;
+        for (int i = 0; i < runs; i++) {
+            cylinders = BenchmarkManifests.copyOf(manifest);
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            loadingService.calculateLoading(cylinders, container, strategy);
+            times[i] = System.nanoTime() - start;
+            allocations[i] = allocatedBytes() - allocatedBefore;
+        }
+
+        int placedCount = 0;
+        double placedVolume = 0;
+        double totalValue = 0;
+        for (Cylinder cylinder : cylinders) {
+            if (cylinder.getZ() >= 0) {
+                placedCount++;
+                placedVolume += Math.PI * cylinder.getRadius() * cylinder.getRadius() * cylinder.getHeight();
+                totalValue += cylinder.getValue();
+            }
+        }
+
+        WorkloadResult result = new WorkloadResult();
+        result.setDistribution(distribution);
+        result.setStrategy(strategy);
+        result.setWallTimeMs(median(times) / 1e6);
+        result.setThroughputPerSec(result.getWallTimeMs() > 0 ? manifest.size() * 1000 / result.getWallTimeMs() : 0);
+        result.setAllocatedMb(median(allocations) / (1024.0 * 1024.0));
+        result.setAllocationRateMbPerSec(result.getWallTimeMs() > 0 ? result.getAllocatedMb() * 1000 / result.getWallTimeMs() : 0);
+        result.setPlacedCount(placedCount);
+        result.setFillRatio(placedVolume / (container.getLength() * container.getWidth() * container.getHeight()));
+        result.setTotalValue(totalValue);
+        result.setViolations(countViolations(cylinders, container, distribution + "/" + strategy));
+        System.out.printf("%-14s %-9s %9.1f ms %9.0f 个/s %9.1f MB %9.1f MB/s  placed=%d fill=%.4f value=%.0f%n",
+                distribution, strategy, result.getWallTimeMs(), result.getThroughputPerSec(), result.getAllocatedMb(),
+                result.getAllocationRateMbPerSec(), placedCount, result.getFillRatio(), totalValue);
+        return result;
+    }
+
+    // 逐对检查已放置的圆柱体，统计超出集装箱和相互重叠的数量，容差与放置内核相同
+    private static int countViolations(List<Cylinder> cylinders, Container container, String name) {
+        List<Cylinder> placed = new ArrayList<>();
+        for (Cylinder cylinder : cylinders) {
+            if (cylinder.getZ() >= 0) {
+                placed.add(cylinder);
+            }
+        }
+        double tolerance = SpatialIndex.TOLERANCE;
+        int violations = 0;
+        for (int i = 0; i < placed.size(); i++) {
+            Cylinder c1 = placed.get(i);
+            double r1 = c1.getRadius();
+            if (c1.getX() - r1 < -tolerance || c1.getX() + r1 > container.getLength() + tolerance
+                    || c1.getY() - r1 < -tolerance || c1.getY() + r1 > container.getWidth() + tolerance
+                    || c1.getZ() + c1.getHeight() > container.getHeight() + tolerance) {
+                System.out.printf("超出集装箱 %s：编号%d 位置(%.4f, %.4f, %.4f)%n",
+                        name, c1.getId(), c1.getX(), c1.getY(), c1.getZ());
+                violations++;
+            }
+            for (int j = i + 1; j < placed.size(); j++) {
+                Cylinder c2 = placed.get(j);
+                if (c1.getZ() + c1.getHeight() <= c2.getZ() + tolerance
+                        || c2.getZ() + c2.getHeight() <= c1.getZ() + tolerance) {
+                    continue;
+                }
+                double dx = c1.getX() - c2.getX();
+                double dy = c1.getY() - c2.getY();
+                double minDistance = r1 + c2.getRadius() - tolerance;
+                if (dx * dx + dy * dy < minDistance * minDistance) {
+                    System.out.printf("重叠 %s：编号%d 与编号%d%n", name, c1.getId(), c2.getId());
+                    violations++;
+                }
+            }
+        }
+        return violations;
+    }
+
+    // 与基准比较，输出超出阈值的组合
+    private boolean compare(Baseline baseline, Baseline current) {
+        if (baseline.getSize() != current.getSize() || baseline.getSeed() != current.getSeed()
+                || !baseline.getContainer().equals(current.getContainer())) {
+            System.out.println("基准文件的清单参数与本次运行不一致，请使用 --record 重新记录");
+            return false;
+        }
+
+        boolean passed = true;
+        for (WorkloadResult result : current.getResults()) {
+            WorkloadResult expected = baseline.find(result.getDistribution(), result.getStrategy());
+            String name = result.getDistribution() + "/" + result.getStrategy();
+            if (expected == null) {
+                System.out.println("基准中没有 " + name + "，跳过比较");
+                continue;
+            }
+            if (result.getWallTimeMs() > expected.getWallTimeMs() * (1 + timeTolerance)
+                    && result.getWallTimeMs() - expected.getWallTimeMs() > timeSlackMs) {
+                System.out.printf("耗时回归 %s：%.1f ms -> %.1f ms%n", name, expected.getWallTimeMs(), result.getWallTimeMs());
+                passed = false;
+            }
+            if (result.getFillRatio() < expected.getFillRatio() * (1 - qualityTolerance)) {
+                System.out.printf("填充率回归 %s：%.4f -> %.4f%n", name, expected.getFillRatio(), result.getFillRatio());
+                passed = false;
+            }
+            if (result.getTotalValue() < expected.getTotalValue() * (1 - qualityTolerance)) {
+                System.out.printf("总价值回归 %s：%.0f -> %.0f%n", name, expected.getTotalValue(), result.getTotalValue());
+                passed = false;
+            }
+        }
+        System.out.println(passed ? "性能回归测试通过" : "性能回归测试未通过");
+        return passed;
+    }
+
+    // 所有线程累计分配的字节数，包括组合策略的线程池
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    /**
+     * 基准文件：清单参数和每个组合的测量结果
+     */
+    @Data
+    static class Baseline {
+        private int size;
+        private String container;
+        private long seed;
+        private List<WorkloadResult> results = new ArrayList<>();
+
+        WorkloadResult find(String distribution, String strategy) {
+            for (WorkloadResult result : results) {
+                if (result.getDistribution().equals(distribution) && result.getStrategy().equals(strategy)) {
+                    return result;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 单个组合（清单分布 + 策略）的测量结果
+     */
+    @Data
+    static class WorkloadResult {
+        private String distribution;
+        private String strategy;
+        private double wallTimeMs;
+        // 每秒处理的清单圆柱体数量
+        private double throughputPerSec;
+        private double allocatedMb;
+        private double allocationRateMbPerSec;
+        private int placedCount;
+        private double fillRatio;
+        private double totalValue;
+        // 重叠或超出集装箱的次数，可行的方案为0
+        private int violations;
+    }
+}
@@ -0,0 +1,114 @@
+package com.container.loading.controller;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+import com.container.loading.service.LoadingJob;
+import com.container.loading.service.LoadingJobService;
+import com.container.loading.service.LoadingProgress;
+import com.container.loading.util.ExcelUtil;
+import com.container.loading.util.ManifestUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 异步装载任务接口
+ * 提交任务后立即返回任务编号，通过轮询查询进度和结果，也可以取消任务
+ */
+@Controller
+@RequestMapping("/jobs")
+public class JobController {
+
+    @Autowired
+    private LoadingJobService jobService;
+
+    @PostMapping
+    @ResponseBody
+    public Map<String, Object> submit(@RequestParam("file") MultipartFile file,
+                                      @RequestParam("length") double length,
+                                      @RequestParam("width") double width,
+                                      @RequestParam("height") double height,
+                                      @RequestParam(value = "strategy", defaultValue = "volume") String strategy,
+                                      @RequestParam(value = "deadlineMs", required = false) Long deadlineMs) throws IOException {
+        // 读取货物清单，上传的文件只在本次请求内有效
+        List<Cylinder> cylinders = ManifestUtil.readCylinders(file);
+        Container container = LoadingController.createContainer(length, width, height);
+
+        try {
+            return buildStatus(jobService.submit(cylinders, container, strategy, LoadingController.timeBudget(deadlineMs)));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "装载任务队列已满，请稍后重试");
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    @ResponseBody
+    public Map<String, Object> status(@PathVariable String jobId) {
+        return buildStatus(findJob(jobId));
+    }
+
+    @GetMapping("/{jobId}/result")
+    @ResponseBody
+    public Map<String, Object> result(@PathVariable String jobId) {
+        LoadingJob job = findCompletedJob(jobId);
+        return LoadingController.buildResult(job.getCylinders(), job.getStrategyName(),
+                job.getProgress().isTimeLimited());
+    }
+
+    @GetMapping("/{jobId}/result.xlsx")
+    public void resultFile(@PathVariable String jobId, HttpServletResponse response) throws IOException {
+        LoadingJob job = findCompletedJob(jobId);
+        // 结果直接流式写入响应，不经过磁盘文件
+        response.setContentType(LoadingController.XLSX.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, LoadingController.attachment(LoadingController.RESULT_FILE_NAME));
+        ExcelUtil.writeResults(job.getCylinders(), response.getOutputStream(), job.getStrategyName());
+    }
+
+    @DeleteMapping("/{jobId}")
+    @ResponseBody
+    public Map<String, Object> cancel(@PathVariable String jobId) {
+        LoadingJob job = jobService.cancel(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "装载任务不存在：" + jobId));
+        return buildStatus(job);
+    }
+
+    private LoadingJob findJob(String jobId) {
+        return jobService.getJob(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "装载任务不存在：" + jobId));
+    }
+
+    private LoadingJob findCompletedJob(String jobId) {
+        LoadingJob job = findJob(jobId);
+        if (job.getStatus() != LoadingJob.Status.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "装载任务尚未完成，当前状态：" + job.getStatus());
+        }
+        return job;
+    }
+
+    // 任务状态数据：编号、状态、进度、策略名称以及是否受时间预算限制
+    private static Map<String, Object> buildStatus(LoadingJob job) {
+        LoadingProgress progress = job.getProgress();
+        Map<String, Object> statusMap = new HashMap<>();
+        statusMap.put("jobId", job.getId());
+        statusMap.put("status", job.getStatus());
+        statusMap.put("processed", progress.getProcessed());
+        statusMap.put("total", progress.getTotal());
+        statusMap.put("strategy", job.getStrategyName());
+        statusMap.put("timeLimited", progress.isTimeLimited());
+        if (job.getError() != null) {
+            statusMap.put("error", job.getError());
+        }
+        return statusMap;
+    }
+}
@@ -1,16 +1,32 @@
 package com.container.loading.controller;
 
 import com.container.loading.model.Container;
+import com.container.loading.model.ContainerType;
 import com.container.loading.model.Cylinder;
+import com.container.loading.model.FleetPlan;
+import com.container.loading.model.PlanAdditionRequest;
+import com.container.loading.service.FleetLoadingService;
+import com.container.loading.service.LoadingProgress;
 import com.container.loading.service.LoadingService;
-import com.container.loading.util.ExcelUtil;
+import com.container.loading.service.ResultFileService;
+import com.container.loading.util.ManifestUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,9 +35,19 @@ import java.util.stream.Collectors;
 @Controller
 public class LoadingController {
 
+    static final String RESULT_FILE_NAME = "result.xlsx";
+    static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
     @Autowired
     private LoadingService loadingService;
 
+    @Autowired
+    private ResultFileService resultFileService;
+
+    @Autowired
+    private FleetLoadingService fleetLoadingService;
+
     @GetMapping("/")
     public String index(Model model) {
         // 向视图传递可用策略列表
@@ -43,37 +69,161 @@ public class LoadingController {
                                          @RequestParam("length") double length,
                                          @RequestParam("width") double width,
                                          @RequestParam("height") double height,
-                                         @RequestParam(value = "strategy", defaultValue = "volume") String strategy) throws IOException {
-        // 读取Excel文件
-        List<Cylinder> cylinders = ExcelUtil.readCylinders(file);
+                                         @RequestParam(value = "strategy", defaultValue = "volume") String strategy,
+                                         @RequestParam(value = "deadlineMs", required = false) Long deadlineMs) throws IOException {
+        // 读取货物清单（Excel、CSV或二进制文件）
+        List<Cylinder> cylinders = ManifestUtil.readCylinders(file);
         
         // 创建集装箱对象
+        Container container = createContainer(length, width, height);
+        
+        // 计算装箱方案，使用指定策略，指定了时间预算时超时后返回已得到的最佳方案
+        LoadingProgress progress = new LoadingProgress();
+        progress.setTimeBudget(timeBudget(deadlineMs));
+        loadingService.calculateLoading(cylinders, container, strategy, progress);
+        
+        // 获取当前使用的策略名称
+        String strategyName = loadingService.getAvailableStrategies().get(strategy);
+        
+        // 将结果写入本次请求独立的Excel文件
+        String resultId = resultFileService.save(cylinders, strategyName);
+        
+        // 返回结果数据和结果文件的下载地址
+        Map<String, Object> resultMap = buildResult(cylinders, strategyName, progress.isTimeLimited());
+        resultMap.put("resultFile", "/results/" + resultId);
+        return resultMap;
+    }
+    
+    @PostMapping("/plan/additions")
+    @ResponseBody
+    public Map<String, Object> addToPlan(@RequestBody PlanAdditionRequest request) throws IOException {
+        if (request.getCylinders() == null || request.getAdditions() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "请求中缺少 cylinders 或 additions");
+        }
+        Container container = createContainer(request.getLength(), request.getWidth(), request.getHeight());
+        
+        // 已有圆柱体保持原位置，只放置新增的圆柱体
+        LoadingProgress progress = new LoadingProgress();
+        progress.setTimeBudget(timeBudget(request.getDeadlineMs()));
+        List<Cylinder> cylinders;
+        try {
+            cylinders = loadingService.addToPlan(request.getCylinders(), request.getAdditions(), container,
+                    request.getStrategy(), progress);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        
+        String strategyName = loadingService.getAvailableStrategies().get(request.getStrategy());
+        String resultId = resultFileService.save(cylinders, strategyName);
+        
+        Map<String, Object> resultMap = buildResult(cylinders, strategyName, progress.isTimeLimited());
+        resultMap.put("addedCount", request.getAdditions().size());
+        resultMap.put("resultFile", "/results/" + resultId);
+        return resultMap;
+    }
+    
+    @PostMapping("/upload/fleet")
+    @ResponseBody
+    public Map<String, Object> handleFleetUpload(
+                                         @RequestParam("file") MultipartFile file,
+                                         @RequestParam("containers") String containers,
+                                         @RequestParam(value = "strategy", defaultValue = "volume") String strategy,
+                                         @RequestParam(value = "deadlineMs", required = false) Long deadlineMs) throws IOException {
+        // 先检查车队参数，再读取货物清单
+        List<ContainerType> fleet = parseFleet(containers);
+        List<Cylinder> cylinders = ManifestUtil.readCylinders(file);
+        
+        // 把清单分配到尽量少的集装箱中，各集装箱并行计算
+        FleetPlan plan = fleetLoadingService.calculateFleetLoading(cylinders, fleet, strategy, timeBudget(deadlineMs));
+        
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("containers", plan.getContainers());
+        resultMap.put("containerCount", plan.getContainers().size());
+        resultMap.put("unplaced", plan.getUnplaced());
+        resultMap.put("unplacedCount", plan.getUnplaced().size());
+        resultMap.put("totalCount", cylinders.size());
+        resultMap.put("strategy", loadingService.getAvailableStrategies().get(strategy));
+        resultMap.put("timeLimited", plan.isTimeLimited());
+        return resultMap;
+    }
+    
+    @GetMapping("/results/{resultId}")
+    public ResponseEntity<Resource> downloadResult(@PathVariable String resultId) {
+        // 下载 /upload 生成的结果文件
+        Path file = resultFileService.find(resultId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "结果文件不存在或已过期：" + resultId));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(RESULT_FILE_NAME))
+                .contentType(XLSX)
+                .body(new FileSystemResource(file));
+    }
+    
+    // 根据页面参数创建集装箱对象
+    static Container createContainer(double length, double width, double height) {
         Container container = new Container();
         container.setLength(length);
         container.setWidth(width);
         container.setHeight(height);
-        
-        // 计算装箱方案，使用指定策略
-        loadingService.calculateLoading(cylinders, container, strategy);
-        
+        return container;
+    }
+    
+    // 解析车队参数，例如 "12x2.4x2.6*3,6x2.4x2.6" 表示3个12米集装箱和1个6米集装箱，数量省略时为1
+    static List<ContainerType> parseFleet(String containers) {
+        List<ContainerType> fleet = new ArrayList<>();
+        for (String entry : containers.split(",")) {
+            String[] countParts = entry.trim().split("\\*");
+            String[] sizes = countParts[0].trim().split("[xX]");
+            if (countParts.length > 2 || sizes.length != 3) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "无法识别的集装箱规格：" + entry);
+            }
+            ContainerType type = new ContainerType();
+            try {
+                type.setLength(Double.parseDouble(sizes[0].trim()));
+                type.setWidth(Double.parseDouble(sizes[1].trim()));
+                type.setHeight(Double.parseDouble(sizes[2].trim()));
+                if (countParts.length == 2) {
+                    type.setCount(Integer.parseInt(countParts[1].trim()));
+                }
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "无法识别的集装箱规格：" + entry);
+            }
+            if (type.getLength() <= 0 || type.getWidth() <= 0 || type.getHeight() <= 0 || type.getCount() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "集装箱尺寸和数量必须为正数：" + entry);
+            }
+            fleet.add(type);
+        }
+        return fleet;
+    }
+    
+    // 请求中的时间预算（毫秒），未指定时不限时
+    static long timeBudget(Long deadlineMs) {
+        if (deadlineMs == null) {
+            return 0;
+        }
+        if (deadlineMs <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "deadlineMs 必须为正数");
+        }
+        return deadlineMs;
+    }
+    
+    // 以附件形式下载时的响应头
+    static String attachment(String fileName) {
+        return ContentDisposition.attachment().filename(fileName).build().toString();
+    }
+    
+    // 装箱结果数据：圆柱体位置、未放置数量、总数、策略名称以及是否受时间预算限制
+    static Map<String, Object> buildResult(List<Cylinder> cylinders, String strategyName, boolean timeLimited) {
         // 计算未放置的圆柱体数量
         List<Cylinder> unplacedCylinders = cylinders.stream()
                 .filter(c -> c.getZ() < 0)
                 .collect(Collectors.toList());
         
-        // 获取当前使用的策略名称
-        String strategyName = loadingService.getAvailableStrategies().get(strategy);
-        
-        // 将结果写入新的Excel文件
-        ExcelUtil.writeResults(cylinders, "result.xlsx", strategyName);
-        
-        // 返回结果数据
         Map<String, Object> resultMap = new HashMap<>();
         resultMap.put("cylinders", cylinders);
         resultMap.put("unplacedCount", unplacedCylinders.size());
         resultMap.put("totalCount", cylinders.size());
         resultMap.put("strategy", strategyName);
-        
+        resultMap.put("timeLimited", timeLimited);
         return resultMap;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.container.loading.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 多集装箱装载方案中单个集装箱的装载结果
+ */
+@Data
+public class ContainerLoad {
+    private int index;                  // 集装箱序号，从1开始
+    private Container container;        // 集装箱尺寸
+    private List<Cylinder> cylinders;   // 装入该集装箱的圆柱体（含位置）
+    private int placedCount;            // 装入的圆柱体数量
+    private double totalValue;          // 装入的总价值
+    private double utilization;         // 体积利用率（圆柱体总体积 / 集装箱容积）
+}
@@ -0,0 +1,14 @@
+package com.container.loading.model;
+
+import lombok.Data;
+
+/**
+ * 车队中的一种集装箱及可用数量
+ */
+@Data
+public class ContainerType {
+    private double length;    // 长度
+    private double width;     // 宽度
+    private double height;    // 高度
+    private int count = 1;    // 可用数量
+}
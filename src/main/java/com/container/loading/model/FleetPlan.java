@@ -0,0 +1,16 @@
+package com.container.loading.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多集装箱装载方案
+ */
+@Data
+public class FleetPlan {
+    private List<ContainerLoad> containers = new ArrayList<>(); // 使用的集装箱，未装货的集装箱不列出
+    private List<Cylinder> unplaced = new ArrayList<>();        // 所有集装箱都装不下的圆柱体
+    private boolean timeLimited;                                // 是否因时间预算用完而提前停止
+}
@@ -0,0 +1,19 @@
+package com.container.loading.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 向已有方案追加圆柱体的请求
+ */
+@Data
+public class PlanAdditionRequest {
+    private double length;              // 集装箱长度
+    private double width;               // 集装箱宽度
+    private double height;              // 集装箱高度
+    private String strategy = "volume"; // 新增圆柱体使用的策略
+    private Long deadlineMs;            // 时间预算（毫秒），为空时不限时
+    private List<Cylinder> cylinders;   // 已有方案中的圆柱体（含位置）
+    private List<Cylinder> additions;   // 新增的圆柱体
+}
@@ -0,0 +1,26 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Cylinder;
+import java.util.List;
+
+/**
+ * 装载顺序搜索策略
+ * 以各策略的排序结果为起点，用并行模拟退火搜索装入总体积最大的装载顺序；
+ * 排序只给出搜索的初始顺序（体积从大到小），搜索过程见 {@link OrderSearch}
+ */
+public class AnnealingStrategy implements LoadingStrategy {
+    
+    @Override
+    public void sortCylinders(List<Cylinder> cylinders) {
+        // 按体积从大到小排序
+        cylinders.sort((c1, c2) -> Double.compare(
+            Math.PI * c2.getRadius() * c2.getRadius() * c2.getHeight(),
+            Math.PI * c1.getRadius() * c1.getRadius() * c1.getHeight()
+        ));
+    }
+    
+    @Override
+    public String getStrategyName() {
+        return "顺序搜索（模拟退火）";
+    }
+}
@@ -0,0 +1,447 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 候选位置引擎
+ * 不再枚举整张网格，只生成可能成为最优解的位置：
+ * 容器角点、与墙面相切的位置、与两个已放置圆柱体同时相切的位置，
+ * 以及每个圆柱体在搜索方向上的极值点。
+ * 候选集合按（高度层, 半径, 高度）缓存，放置新圆柱体时增量追加，
+ * 探测失败的候选位置在本次装载中不会再次可行，会被直接移除；
+ * 局部搜索移走圆柱体后，与其高度范围相交的集合作废，下次需要时重新生成。
+ * 按放置顺序撤销最近的放置时（{@link #truncate(int)}）集合不作废而是回退：
+ * 每个候选位置记录生成它的放置的序号，开启撤销后被删掉的候选位置记入日志，
+ * 回退时删去由撤销的放置生成的位置，并恢复撤销的放置之后才删掉的位置。
+ * 候选坐标保存在基本类型数组中，探测过程不创建对象。
+ * 规格各不相同的货物会产生大量只用一次的候选集合，所有集合的数组总容量超过上限时
+ * 按最近最少使用淘汰，被淘汰的集合在下次需要时重新生成。
+ */
+class CandidateEngine {
+
+    // 相切位置向外偏移的距离，避免浮点误差导致误判为重叠
+    private static final double EPS = 1e-7;
+    // 所有候选集合的数组总容量上限（候选位置个数）
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private final PlacementKernel kernel;
+    private final double length;
+    private final double width;
+    // 按访问顺序排列，便于淘汰最近最少使用的集合
+    private final Map<Key, CandidateSet> candidateSets = new LinkedHashMap<>(16, 0.75f, true);
+    private long capacity;
+    private final IntList neighbours = new IntList();
+    // 每个已放置圆柱体的放置序号，序号随放置递增，撤销后也不重复使用
+    private final int[] stamps;
+    private int clock;
+    // 是否记录被删掉的候选位置，开启后才能回退
+    private boolean undoable;
+    // 复用的查询键，避免每次查找都创建对象
+    private final Key lookupKey = new Key(0, 0, 0);
+
+    CandidateEngine(PlacementKernel kernel) {
+        this.kernel = kernel;
+        this.length = kernel.getLength();
+        this.width = kernel.getWidth();
+        this.stamps = new int[kernel.size()];
+    }
+
+    /**
+     * 在指定高度层寻找最优的可行位置
+     * 按策略的搜索顺序选出最靠前的可行候选位置，找到后设置为圆柱体的待定位置
+     *
+     * @param item 待放置的圆柱体编号
+     * @param z 高度层
+     * @param strategyKey 策略标识，决定候选位置的优先顺序
+     * @return 是否找到可行位置
+     */
+    boolean findPosition(int item, double z, String strategyKey) {
+        double radius = kernel.radius(item);
+        double height = kernel.height(item);
+        if (z < 0 || z + height > kernel.getContainerHeight() || 2 * radius > length || 2 * radius > width) {
+            return false;
+        }
+
+        lookupKey.set(z, radius, height);
+        CandidateSet set = candidateSets.get(lookupKey);
+        if (set == null) {
+            set = createSet(z, radius, height);
+        }
+
+        boolean found = false;
+        double bestX = 0;
+        double bestY = 0;
+        PlacementStats stats = kernel.getStats();
+        int oldCapacity = set.capacity();
+
+        int i = 0;
+        while (i < set.size) {
+            double x = set.xs[i];
+            double y = set.ys[i];
+            stats.candidateProbed();
+            if (found && !isBefore(x, y, bestX, bestY, strategyKey)) {
+                i++;
+                continue;
+            }
+            if (kernel.overlaps(item, x, y, z)) {
+                // 已放置的圆柱体被移走前此位置都不可行
+                set.remove(i, undoable ? clock : -1);
+                continue;
+            }
+            found = true;
+            bestX = x;
+            bestY = y;
+            i++;
+        }
+
+        capacity += set.capacity() - oldCapacity;
+
+        if (found) {
+            kernel.setPosition(item, bestX, bestY, z);
+        }
+        return found;
+    }
+
+    /**
+     * 通知引擎有新的圆柱体被放置，为受影响的候选集合追加新的相切位置
+     * @param placed 已放置的圆柱体编号
+     */
+    void onPlaced(int placed) {
+        stamps[placed] = ++clock;
+        double zBottom = kernel.z(placed);
+        double zTop = zBottom + kernel.height(placed);
+        for (CandidateSet set : candidateSets.values()) {
+            if (zTop <= set.key.z || zBottom >= set.key.z + set.key.height) {
+                continue;
+            }
+            addObstacleCandidates(set, placed);
+        }
+        evict(null);
+    }
+
+    /**
+     * 通知引擎有圆柱体被移走：移除前因其重叠而删掉的候选位置可能重新可行，
+     * 作废高度范围与之相交的候选集合
+     * @param removed 被移走的圆柱体编号，调用时位置尚未清除
+     */
+    void onRemoved(int removed) {
+        double zBottom = kernel.z(removed);
+        double zTop = zBottom + kernel.height(removed);
+        Iterator<CandidateSet> sets = candidateSets.values().iterator();
+        while (sets.hasNext()) {
+            CandidateSet set = sets.next();
+            if (zTop <= set.key.z || zBottom >= set.key.z + set.key.height) {
+                continue;
+            }
+            capacity -= set.capacity();
+            sets.remove();
+        }
+    }
+
+    /**
+     * 开始记录被删掉的候选位置，之后放置的圆柱体可以通过 {@link #truncate(int)} 撤销
+     */
+    void enableUndo() {
+        undoable = true;
+    }
+
+    /**
+     * 回退全部候选集合，与只放置过前 count 个圆柱体时等价；
+     * 放置内核在撤销的圆柱体移出放置顺序之后调用，撤销的放置必须是最近的放置
+     * @param count 保留的已放置圆柱体数量
+     * @throws IllegalStateException 没有开启撤销
+     */
+    void truncate(int count) {
+        if (!undoable) {
+            throw new IllegalStateException("候选位置引擎没有开启撤销");
+        }
+        int kept = count > 0 ? stamps[kernel.placedItem(count - 1)] : 0;
+        for (CandidateSet set : candidateSets.values()) {
+            int oldCapacity = set.capacity();
+            set.truncate(kept);
+            capacity += set.capacity() - oldCapacity;
+        }
+    }
+
+    // 判断候选位置(x, y)在策略的搜索顺序中是否排在(bestX, bestY)之前
+    private boolean isBefore(double x, double y, double bestX, double bestY, String strategyKey) {
+        if ("quantity".equals(strategyKey)) {
+            // 数量优先：靠近原点的位置优先
+            return x * x + y * y < bestX * bestX + bestY * bestY;
+        }
+        if ("volume".equals(strategyKey)) {
+            // 体积优先：远离对角的位置优先
+            double dx = length - x;
+            double dy = width - y;
+            double bestDx = length - bestX;
+            double bestDy = width - bestY;
+            return dx * dx + dy * dy > bestDx * bestDx + bestDy * bestDy;
+        }
+        // 其他策略：与网格扫描顺序一致，先X后Y
+        if (Math.abs(x - bestX) > EPS) {
+            return x < bestX;
+        }
+        return y < bestY;
+    }
+
+    // 为新的(高度层, 半径, 高度)组合生成完整的候选集合
+    private CandidateSet createSet(double z, double radius, double height) {
+        Key key = new Key(z, radius, height);
+        CandidateSet set = new CandidateSet(key);
+
+        // 容器四个角点
+        double minX = radius;
+        double maxX = length - radius;
+        double minY = radius;
+        double maxY = width - radius;
+        set.add(minX, minY, 0);
+        set.add(maxX, minY, 0);
+        set.add(minX, maxY, 0);
+        set.add(maxX, maxY, 0);
+        capacity += set.capacity();
+
+        for (int i = 0; i < kernel.getPlacedCount(); i++) {
+            int placed = kernel.placedItem(i);
+            double zBottom = kernel.z(placed);
+            double zTop = zBottom + kernel.height(placed);
+            if (zTop <= z || zBottom >= z + height) {
+                continue;
+            }
+            addObstacleCandidates(set, placed);
+        }
+
+        candidateSets.put(key, set);
+        evict(set);
+        return set;
+    }
+
+    // 总容量超过上限时淘汰最近最少使用的集合，正在使用的集合除外
+    private void evict(CandidateSet inUse) {
+        Iterator<CandidateSet> sets = candidateSets.values().iterator();
+        while (capacity > MAX_CAPACITY && sets.hasNext()) {
+            CandidateSet set = sets.next();
+            if (set != inUse) {
+                capacity -= set.capacity();
+                sets.remove();
+            }
+        }
+    }
+
+    // 生成与某个障碍圆柱体相关的候选位置：极值点、与墙相切、与相邻圆柱体同时相切；
+    // 候选位置的序号取生成它的圆柱体中最晚放置的一个
+    private void addObstacleCandidates(CandidateSet set, int obstacle) {
+        double radius = set.key.radius;
+        int stamp = stamps[obstacle];
+        double cx = kernel.x(obstacle);
+        double cy = kernel.y(obstacle);
+        double rho = kernel.radius(obstacle) + radius + EPS;
+
+        // 坐标轴方向的极值点
+        addIfInside(set, cx + rho, cy, stamp);
+        addIfInside(set, cx - rho, cy, stamp);
+        addIfInside(set, cx, cy + rho, stamp);
+        addIfInside(set, cx, cy - rho, stamp);
+
+        // 背离原点方向的极值点（数量优先策略）
+        double toOrigin = Math.sqrt(cx * cx + cy * cy);
+        if (toOrigin > 0) {
+            addIfInside(set, cx + rho * cx / toOrigin, cy + rho * cy / toOrigin, stamp);
+        }
+        // 朝向对角方向的极值点（体积优先策略）
+        double fx = length - cx;
+        double fy = width - cy;
+        double toFar = Math.sqrt(fx * fx + fy * fy);
+        if (toFar > 0) {
+            addIfInside(set, cx + rho * fx / toFar, cy + rho * fy / toFar, stamp);
+        }
+
+        // 与四面墙相切
+        addWallIntersections(set, cx, cy, rho, radius, true, stamp);
+        addWallIntersections(set, cx, cy, rho, radius, false, stamp);
+        addWallIntersections(set, cx, cy, rho, length - radius, true, stamp);
+        addWallIntersections(set, cx, cy, rho, width - radius, false, stamp);
+
+        // 与相邻圆柱体同时相切
+        neighbours.clear();
+        SpatialIndex placedIndex = kernel.getPlacedIndex();
+        double reach = rho + placedIndex.getMaxRadius() + radius + EPS;
+        placedIndex.collect(cx, cy, reach, set.key.z, set.key.z + set.key.height, neighbours);
+        for (int i = 0; i < neighbours.size(); i++) {
+            int other = neighbours.get(i);
+            if (other == obstacle) {
+                continue;
+            }
+            double otherRho = kernel.radius(other) + radius + EPS;
+            addCircleIntersections(set, cx, cy, rho, kernel.x(other), kernel.y(other), otherRho,
+                    Math.max(stamp, stamps[other]));
+        }
+    }
+
+    // 圆与直线 x = wall（vertical 为 true）或 y = wall 的交点
+    private void addWallIntersections(CandidateSet set, double cx, double cy, double rho,
+                                      double wall, boolean vertical, int stamp) {
+        double offset = vertical ? wall - cx : wall - cy;
+        double remainder = rho * rho - offset * offset;
+        if (remainder < 0) {
+            return;
+        }
+        double half = Math.sqrt(remainder);
+        if (vertical) {
+            addIfInside(set, wall, cy - half, stamp);
+            addIfInside(set, wall, cy + half, stamp);
+        } else {
+            addIfInside(set, cx - half, wall, stamp);
+            addIfInside(set, cx + half, wall, stamp);
+        }
+    }
+
+    // 两个圆的交点
+    private void addCircleIntersections(CandidateSet set, double x1, double y1, double r1,
+                                        double x2, double y2, double r2, int stamp) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double distanceSquared = dx * dx + dy * dy;
+        double distance = Math.sqrt(distanceSquared);
+        if (distance == 0 || distance > r1 + r2 || distance < Math.abs(r1 - r2)) {
+            return;
+        }
+        double a = (r1 * r1 - r2 * r2 + distanceSquared) / (2 * distance);
+        double h = Math.sqrt(Math.max(0, r1 * r1 - a * a));
+        double mx = x1 + a * dx / distance;
+        double my = y1 + a * dy / distance;
+        addIfInside(set, mx - h * dy / distance, my + h * dx / distance, stamp);
+        addIfInside(set, mx + h * dy / distance, my - h * dx / distance, stamp);
+    }
+
+    // 只保留不超出容器边界的候选位置
+    private void addIfInside(CandidateSet set, double x, double y, int stamp) {
+        double radius = set.key.radius;
+        double maxX = length - radius;
+        double maxY = width - radius;
+        if (x < radius - EPS || x > maxX + EPS || y < radius - EPS || y > maxY + EPS) {
+            return;
+        }
+        int oldCapacity = set.capacity();
+        set.add(Math.max(radius, Math.min(maxX, x)), Math.max(radius, Math.min(maxY, y)), stamp);
+        capacity += set.capacity() - oldCapacity;
+    }
+
+    // 候选集合的键：高度层、半径、高度
+    private static final class Key {
+        double z;
+        double radius;
+        double height;
+
+        Key(double z, double radius, double height) {
+            set(z, radius, height);
+        }
+
+        void set(double z, double radius, double height) {
+            this.z = z;
+            this.radius = radius;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return z == other.z && radius == other.radius && height == other.height;
+        }
+
+        @Override
+        public int hashCode() {
+            // 每次查找候选集合都要计算，逐个组合字段避免装箱；加 0.0 把 -0.0 归一为 0.0，与 == 比较一致
+            int hash = Double.hashCode(z + 0.0);
+            hash = 31 * hash + Double.hashCode(radius + 0.0);
+            return 31 * hash + Double.hashCode(height + 0.0);
+        }
+    }
+
+    // 候选位置集合，坐标和生成它的放置序号保存在基本类型数组中；
+    // 开启撤销后，被删掉的位置连同删除时的放置序号按删除的先后记入日志
+    private static final class CandidateSet {
+        final Key key;
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+        int[] stamps = new int[16];
+        int size;
+        double[] prunedXs = new double[0];
+        double[] prunedYs = new double[0];
+        int[] prunedStamps = new int[0];
+        int[] prunedAt = new int[0];
+        int prunedSize;
+
+        CandidateSet(Key key) {
+            this.key = key;
+        }
+
+        // 数组占用的候选位置个数
+        int capacity() {
+            return xs.length + prunedXs.length;
+        }
+
+        void add(double x, double y, int stamp) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+                stamps = Arrays.copyOf(stamps, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            stamps[size] = stamp;
+            size++;
+        }
+
+        // 用最后一个元素覆盖被移除的位置；at 为删除时最近一次放置的序号，-1表示不记入日志
+        void remove(int index, int at) {
+            if (at >= 0) {
+                if (prunedSize == prunedXs.length) {
+                    int length = Math.max(16, prunedSize * 2);
+                    prunedXs = Arrays.copyOf(prunedXs, length);
+                    prunedYs = Arrays.copyOf(prunedYs, length);
+                    prunedStamps = Arrays.copyOf(prunedStamps, length);
+                    prunedAt = Arrays.copyOf(prunedAt, length);
+                }
+                prunedXs[prunedSize] = xs[index];
+                prunedYs[prunedSize] = ys[index];
+                prunedStamps[prunedSize] = stamps[index];
+                prunedAt[prunedSize] = at;
+                prunedSize++;
+            }
+            size--;
+            xs[index] = xs[size];
+            ys[index] = ys[size];
+            stamps[index] = stamps[size];
+        }
+
+        // 回退到序号不超过 kept 的放置都保留、其后的放置都撤销时的状态
+        void truncate(int kept) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (stamps[i] <= kept) {
+                    xs[count] = xs[i];
+                    ys[count] = ys[i];
+                    stamps[count] = stamps[i];
+                    count++;
+                }
+            }
+            size = count;
+            // 撤销的放置之后才删掉的位置可能重新可行，日志按删除的先后排列，从末尾回退
+            while (prunedSize > 0 && prunedAt[prunedSize - 1] > kept) {
+                prunedSize--;
+                if (prunedStamps[prunedSize] <= kept) {
+                    add(prunedXs[prunedSize], prunedYs[prunedSize], prunedStamps[prunedSize]);
+                }
+            }
+        }
+    }
+}
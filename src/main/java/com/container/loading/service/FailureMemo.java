@@ -0,0 +1,81 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+
+/**
+ * 按规格记录的放置失败（支配关系）
+ * 半径为 r、高度为 h 的圆柱体找不到位置后，半径不小于 r 且高度不小于 h 的圆柱体
+ * 放在任何位置都会覆盖同样大小的空间，在同一方案上也放不下，不必再次搜索。
+ * 只保存互不支配的失败规格（帕累托前沿），数量不超过规格数，查询时顺序扫描。
+ * 搜索的位置本身随规格变化时（如按半径确定间距的网格），支配关系不成立，按精确规格记录，
+ * 只跳过完全相同的规格。
+ * 失败记录属于某个方案周期，周期改变后全部失效：由调用方决定哪些方案变化会使失败记录失效。
+ */
+final class FailureMemo {
+
+    private double[] radius = new double[8];
+    private double[] height = new double[8];
+    private int size;
+    // 记录所属的方案周期，-1表示没有记录
+    private long epoch = -1;
+    // 是否只按精确规格记录，不使用支配关系
+    private final boolean exact;
+
+    FailureMemo() {
+        this(false);
+    }
+
+    /**
+     * @param exact 是否只按精确规格记录
+     */
+    FailureMemo(boolean exact) {
+        this.exact = exact;
+    }
+
+    /**
+     * @param r 半径
+     * @param h 高度
+     * @param currentEpoch 当前方案周期
+     * @return 是否已有不大于该规格（精确模式下为相同规格）的圆柱体在当前周期找不到位置
+     */
+    boolean isDominated(double r, double h, long currentEpoch) {
+        if (currentEpoch != epoch) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (exact ? radius[i] == r && height[i] == h : radius[i] <= r && height[i] <= h) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录该规格在当前周期找不到位置，并移除被它支配的记录（精确模式下只移除相同规格）
+     * @param r 半径
+     * @param h 高度
+     * @param currentEpoch 当前方案周期
+     */
+    void recordFailure(double r, double h, long currentEpoch) {
+        if (currentEpoch != epoch) {
+            size = 0;
+            epoch = currentEpoch;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (exact ? radius[i] != r || height[i] != h : radius[i] < r || height[i] < h) {
+                radius[kept] = radius[i];
+                height[kept] = height[i];
+                kept++;
+            }
+        }
+        size = kept;
+        if (size == radius.length) {
+            radius = Arrays.copyOf(radius, size * 2);
+            height = Arrays.copyOf(height, size * 2);
+        }
+        radius[size] = r;
+        height[size] = h;
+        size++;
+    }
+}
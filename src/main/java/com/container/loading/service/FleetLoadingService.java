@@ -0,0 +1,484 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.ContainerLoad;
+import com.container.loading.model.ContainerType;
+import com.container.loading.model.Cylinder;
+import com.container.loading.model.FleetPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 多集装箱装载
+ * 按估算的装载率把清单分配到尽量少的集装箱中：优先使用大集装箱，最后一个集装箱选能装下剩余货物的最小尺寸；
+ * 各集装箱相互独立，在线程池中并行计算装载方案。某个集装箱装不下的圆柱体依次追加到其他集装箱的剩余空间，
+ * 仍有剩余时再开启新的集装箱。最后尝试把装得最少的集装箱并入其他集装箱，减少使用的集装箱数量
+ */
+@Service
+public class FleetLoadingService {
+    private static final Logger log = LoggerFactory.getLogger(FleetLoadingService.class);
+
+    // 分配圆柱体时估算的装载率（圆柱体总体积 / 集装箱容积）
+    private static final double FILL_ESTIMATE = 0.7;
+
+    private final LoadingService loadingService;
+    // 并行计算各集装箱方案的线程池，线程数不超过CPU核数
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), LoadingService.daemonThreads("loading-fleet-"));
+
+    public FleetLoadingService(LoadingService loadingService) {
+        this.loadingService = loadingService;
+    }
+
+    /**
+     * 把清单分配到车队的多个集装箱中
+     * @param cylinders 圆柱体列表，计算完成后写入位置
+     * @param fleet 可用的集装箱种类及数量
+     * @param strategyKey 各集装箱使用的策略标识
+     * @param timeBudgetMillis 整个计算的时间预算（毫秒），0表示不限时
+     * @return 各集装箱的装载结果以及所有集装箱都装不下的圆柱体
+     * @throws IllegalArgumentException 车队为空或集装箱尺寸、数量无效
+     * @throws CancellationException 计算被中断
+     */
+    public FleetPlan calculateFleetLoading(List<Cylinder> cylinders, List<ContainerType> fleet, String strategyKey,
+                                           long timeBudgetMillis) {
+        validateFleet(fleet);
+        FleetRun run = new FleetRun(fleet, timeBudgetMillis);
+        FleetPlan plan = new FleetPlan();
+
+        // 装入集装箱前先放在容器外以便识别；任何一种集装箱都放不下的圆柱体直接列为未放置
+        List<Cylinder> pending = new ArrayList<>();
+        for (Cylinder cylinder : cylinders) {
+            cylinder.setX(-cylinder.getRadius());
+            cylinder.setY(-cylinder.getRadius());
+            cylinder.setZ(-cylinder.getHeight());
+            if (fleet.stream().anyMatch(type -> accepts(type, cylinder))) {
+                pending.add(cylinder);
+            } else {
+                plan.getUnplaced().add(cylinder);
+            }
+        }
+
+        // 每一轮开启一批集装箱，并行装载后把剩余的圆柱体追加到已有集装箱，仍有剩余时进入下一轮
+        while (!pending.isEmpty() && !run.expired()) {
+            List<Bin> opened = openBins(pending, run);
+            if (opened.isEmpty()) {
+                break; // 车队中的集装箱已用完
+            }
+            List<Cylinder> leftovers = assign(pending, opened);
+            leftovers.addAll(solve(opened, strategyKey, run));
+            run.bins.addAll(opened);
+            pending = fillRemainingSpace(leftovers, run.bins, strategyKey, run);
+        }
+
+        consolidate(strategyKey, run);
+
+        for (Bin bin : run.bins) {
+            if (!bin.placed.isEmpty()) {
+                plan.getContainers().add(toContainerLoad(bin, plan.getContainers().size() + 1));
+            }
+        }
+        plan.getUnplaced().addAll(pending);
+        plan.setTimeLimited(run.timeLimited);
+
+        log.info("多集装箱装载完成：使用{}个集装箱，{}个圆柱体无法装入", plan.getContainers().size(),
+                plan.getUnplaced().size());
+        return plan;
+    }
+
+    // 检查车队的集装箱尺寸和数量
+    private static void validateFleet(List<ContainerType> fleet) {
+        if (fleet == null || fleet.isEmpty()) {
+            throw new IllegalArgumentException("车队中至少需要一种集装箱");
+        }
+        for (ContainerType type : fleet) {
+            if (type.getLength() <= 0 || type.getWidth() <= 0 || type.getHeight() <= 0) {
+                throw new IllegalArgumentException("集装箱的长、宽、高必须为正数");
+            }
+            if (type.getCount() < 1) {
+                throw new IllegalArgumentException("集装箱数量至少为1");
+            }
+        }
+    }
+
+    // 按剩余圆柱体的总体积开启集装箱：大集装箱优先，剩余部分选能装下的最小集装箱
+    private static List<Bin> openBins(List<Cylinder> pending, FleetRun run) {
+        double needed = 0;
+        for (Cylinder cylinder : pending) {
+            needed += volume(cylinder);
+        }
+
+        List<Bin> opened = new ArrayList<>();
+        while (needed > 0) {
+            int largest = -1;
+            for (int i = 0; i < run.types.size(); i++) {
+                if (run.available[i] > 0 && acceptsAny(run.types.get(i), pending)
+                        && (largest < 0 || volume(run.types.get(i)) > volume(run.types.get(largest)))) {
+                    largest = i;
+                }
+            }
+            if (largest < 0) {
+                break;
+            }
+            int chosen = largest;
+            if (capacity(run.types.get(largest)) >= needed) {
+                for (int i = 0; i < run.types.size(); i++) {
+                    ContainerType type = run.types.get(i);
+                    if (run.available[i] > 0 && acceptsAny(type, pending) && capacity(type) >= needed
+                            && volume(type) < volume(run.types.get(chosen))) {
+                        chosen = i;
+                    }
+                }
+            }
+            run.available[chosen]--;
+            opened.add(new Bin(chosen, run.types.get(chosen)));
+            needed -= capacity(run.types.get(chosen));
+        }
+        return opened;
+    }
+
+    // 按体积从大到小把圆柱体分配到估算容量足够的第一个集装箱，都不够时分配到剩余容量最大的集装箱；
+    // 返回本轮开启的集装箱都放不下的圆柱体
+    private static List<Cylinder> assign(List<Cylinder> pending, List<Bin> opened) {
+        List<Cylinder> ordered = new ArrayList<>(pending);
+        ordered.sort((c1, c2) -> Double.compare(volume(c2), volume(c1)));
+
+        List<Cylinder> deferred = new ArrayList<>();
+        for (Cylinder cylinder : ordered) {
+            double cylinderVolume = volume(cylinder);
+            Bin target = null;
+            for (Bin bin : opened) {
+                if (!accepts(bin.type, cylinder)) {
+                    continue;
+                }
+                if (bin.estimatedFree >= cylinderVolume) {
+                    target = bin;
+                    break;
+                }
+                if (target == null || bin.estimatedFree > target.estimatedFree) {
+                    target = bin;
+                }
+            }
+            if (target == null) {
+                deferred.add(cylinder);
+            } else {
+                target.assigned.add(cylinder);
+                target.estimatedFree -= cylinderVolume;
+            }
+        }
+        return deferred;
+    }
+
+    // 并行计算各集装箱的装载方案，返回没有装入的圆柱体
+    private List<Cylinder> solve(List<Bin> opened, String strategyKey, FleetRun run) {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Bin bin : opened) {
+            if (bin.assigned.isEmpty()) {
+                continue;
+            }
+            // 各集装箱的圆柱体互不相同，可以独立计算
+            tasks.add(() -> {
+                LoadingProgress progress = run.newProgress();
+                if (progress == null) {
+                    return false;
+                }
+                loadingService.calculateLoading(bin.assigned, bin.container, strategyKey, progress);
+                return progress.isTimeLimited();
+            });
+        }
+
+        List<Future<Boolean>> results;
+        try {
+            results = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("多集装箱装载计算被中断");
+        }
+        for (Future<Boolean> result : results) {
+            if (awaitResult(result)) {
+                run.timeLimited = true;
+            }
+        }
+
+        List<Cylinder> leftovers = new ArrayList<>();
+        for (Bin bin : opened) {
+            for (Cylinder cylinder : bin.assigned) {
+                if (cylinder.getZ() >= 0) {
+                    bin.placed.add(cylinder);
+                } else {
+                    leftovers.add(cylinder);
+                }
+            }
+            bin.assigned.clear();
+        }
+        return leftovers;
+    }
+
+    // 把剩余的圆柱体依次追加到各集装箱的剩余空间，已放置的圆柱体保持原位置；返回仍然装不下的圆柱体
+    private List<Cylinder> fillRemainingSpace(List<Cylinder> leftovers, List<Bin> bins, String strategyKey,
+                                              FleetRun run) {
+        List<Cylinder> remaining = new ArrayList<>(leftovers);
+        for (Bin bin : bins) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            List<Cylinder> additions = candidatesFor(bin, remaining);
+            if (additions.isEmpty()) {
+                continue;
+            }
+            LoadingProgress progress = run.newProgress();
+            if (progress == null) {
+                break;
+            }
+            bin.placed = placedOf(loadingService.addToPlan(bin.placed, additions, bin.container, strategyKey, progress));
+            if (progress.isTimeLimited()) {
+                run.timeLimited = true;
+            }
+            remaining.removeIf(cylinder -> cylinder.getZ() >= 0);
+        }
+        return remaining;
+    }
+
+    // 依次尝试把装得最少的集装箱中的圆柱体全部移到其他集装箱，全部移走后不再使用该集装箱
+    private void consolidate(String strategyKey, FleetRun run) {
+        run.bins.removeIf(bin -> bin.placed.isEmpty());
+        while (run.bins.size() > 1 && !run.expired()) {
+            Bin lightest = run.bins.stream().min(Comparator.comparingDouble(Bin::placedVolume)).get();
+            double freeElsewhere = 0;
+            for (Bin bin : run.bins) {
+                if (bin != lightest) {
+                    freeElsewhere += volume(bin.type) - bin.placedVolume();
+                }
+            }
+            if (lightest.placedVolume() > freeElsewhere) {
+                return;
+            }
+
+            // 在副本上试算，没有全部移走时保持原方案不变
+            Map<Cylinder, Cylinder> originals = new IdentityHashMap<>();
+            List<Cylinder> moving = new ArrayList<>();
+            for (Cylinder cylinder : lightest.placed) {
+                Cylinder copy = copyOf(cylinder);
+                originals.put(copy, cylinder);
+                moving.add(copy);
+            }
+            List<List<Cylinder>> trial = new ArrayList<>();
+            for (Bin bin : run.bins) {
+                List<Cylinder> additions = bin == lightest ? new ArrayList<>() : candidatesFor(bin, moving);
+                if (additions.isEmpty()) {
+                    trial.add(bin.placed);
+                    continue;
+                }
+                LoadingProgress progress = run.newProgress();
+                if (progress == null) {
+                    return;
+                }
+                trial.add(placedOf(loadingService.addToPlan(bin.placed, additions, bin.container, strategyKey,
+                        progress)));
+                if (progress.isTimeLimited()) {
+                    run.timeLimited = true;
+                }
+                moving.removeIf(cylinder -> cylinder.getZ() >= 0);
+                if (moving.isEmpty()) {
+                    break;
+                }
+            }
+            if (!moving.isEmpty()) {
+                return;
+            }
+
+            // 全部移走后把副本的位置写回调用方的圆柱体，方案中也换回原来的对象
+            for (int i = 0; i < trial.size(); i++) {
+                List<Cylinder> placed = trial.get(i);
+                for (int j = 0; j < placed.size(); j++) {
+                    Cylinder original = originals.get(placed.get(j));
+                    if (original != null) {
+                        original.setX(placed.get(j).getX());
+                        original.setY(placed.get(j).getY());
+                        original.setZ(placed.get(j).getZ());
+                        placed.set(j, original);
+                    }
+                }
+                run.bins.get(i).placed = placed;
+            }
+            run.bins.remove(lightest);
+            run.available[lightest.typeIndex]++;
+        }
+    }
+
+    // 集装箱能放下且体积不超过其剩余容积的圆柱体
+    private static List<Cylinder> candidatesFor(Bin bin, List<Cylinder> cylinders) {
+        double free = volume(bin.type) - bin.placedVolume();
+        List<Cylinder> candidates = new ArrayList<>();
+        for (Cylinder cylinder : cylinders) {
+            if (accepts(bin.type, cylinder) && volume(cylinder) <= free) {
+                candidates.add(cylinder);
+            }
+        }
+        return candidates;
+    }
+
+    private static List<Cylinder> placedOf(List<Cylinder> cylinders) {
+        List<Cylinder> placed = new ArrayList<>();
+        for (Cylinder cylinder : cylinders) {
+            if (cylinder.getZ() >= 0) {
+                placed.add(cylinder);
+            }
+        }
+        return placed;
+    }
+
+    private static ContainerLoad toContainerLoad(Bin bin, int index) {
+        ContainerLoad load = new ContainerLoad();
+        load.setIndex(index);
+        load.setContainer(bin.container);
+        load.setCylinders(bin.placed);
+        load.setPlacedCount(bin.placed.size());
+        load.setTotalValue(bin.placed.stream().mapToDouble(Cylinder::getValue).sum());
+        load.setUtilization(bin.placedVolume() / volume(bin.type));
+        return load;
+    }
+
+    private static Cylinder copyOf(Cylinder cylinder) {
+        Cylinder copy = new Cylinder();
+        copy.setId(cylinder.getId());
+        copy.setRadius(cylinder.getRadius());
+        copy.setHeight(cylinder.getHeight());
+        copy.setValue(cylinder.getValue());
+        copy.setX(cylinder.getX());
+        copy.setY(cylinder.getY());
+        copy.setZ(cylinder.getZ());
+        copy.setColor(cylinder.getColor());
+        return copy;
+    }
+
+    // 圆柱体的底面和高度是否放得进该种集装箱
+    private static boolean accepts(ContainerType type, Cylinder cylinder) {
+        double diameter = 2 * cylinder.getRadius();
+        return diameter <= type.getLength() && diameter <= type.getWidth() && cylinder.getHeight() <= type.getHeight();
+    }
+
+    private static boolean acceptsAny(ContainerType type, List<Cylinder> cylinders) {
+        for (Cylinder cylinder : cylinders) {
+            if (accepts(type, cylinder)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double volume(Cylinder cylinder) {
+        return Math.PI * cylinder.getRadius() * cylinder.getRadius() * cylinder.getHeight();
+    }
+
+    private static double volume(ContainerType type) {
+        return type.getLength() * type.getWidth() * type.getHeight();
+    }
+
+    // 估算可装入的圆柱体总体积
+    private static double capacity(ContainerType type) {
+        return volume(type) * FILL_ESTIMATE;
+    }
+
+    private static <T> T awaitResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("多集装箱装载计算被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("集装箱装载方案计算失败", cause);
+        }
+    }
+
+    // 应用关闭时释放线程池
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 一次多集装箱装载计算的状态：剩余可用的集装箱、已开启的集装箱和截止时间
+    private static final class FleetRun {
+        private final List<ContainerType> types;
+        private final int[] available;
+        private final List<Bin> bins = new ArrayList<>();
+        private final long deadlineNanos;
+        private final boolean deadlineSet;
+        private volatile boolean timeLimited;
+
+        FleetRun(List<ContainerType> types, long timeBudgetMillis) {
+            this.types = types;
+            this.available = types.stream().mapToInt(ContainerType::getCount).toArray();
+            this.deadlineSet = timeBudgetMillis > 0;
+            this.deadlineNanos = System.nanoTime() + timeBudgetMillis * 1_000_000;
+        }
+
+        // 时间预算是否已用完
+        boolean expired() {
+            if (deadlineSet && System.nanoTime() - deadlineNanos >= 0) {
+                timeLimited = true;
+            }
+            return timeLimited;
+        }
+
+        // 使用剩余时间预算的进度对象，时间预算已用完时返回null
+        LoadingProgress newProgress() {
+            LoadingProgress progress = new LoadingProgress();
+            if (deadlineSet) {
+                long remainingMillis = (deadlineNanos - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0) {
+                    timeLimited = true;
+                    return null;
+                }
+                progress.setTimeBudget(remainingMillis);
+            }
+            return progress;
+        }
+    }
+
+    // 一个已开启的集装箱：本轮分配到的圆柱体和已经装入的圆柱体
+    private static final class Bin {
+        private final int typeIndex;
+        private final ContainerType type;
+        private final Container container;
+        private final List<Cylinder> assigned = new ArrayList<>();
+        private List<Cylinder> placed = new ArrayList<>();
+        private double estimatedFree;
+
+        Bin(int typeIndex, ContainerType type) {
+            this.typeIndex = typeIndex;
+            this.type = type;
+            this.container = new Container();
+            container.setLength(type.getLength());
+            container.setWidth(type.getWidth());
+            container.setHeight(type.getHeight());
+            this.estimatedFree = capacity(type);
+        }
+
+        double placedVolume() {
+            double total = 0;
+            for (Cylinder cylinder : placed) {
+                total += volume(cylinder);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+
+/**
+ * 二维网格模板
+ * 按策略的搜索顺序排好的网格点坐标，保存在基本类型数组中
+ */
+final class GridTemplate {
+
+    private final double[] xs;
+    private final double[] ys;
+
+    private GridTemplate(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * 生成网格点并按策略排序
+     * 数量优先：靠近原点的位置优先；体积优先：远离对角的位置优先；其他策略保持网格顺序（先X后Y）
+     *
+     * @param length 容器长度
+     * @param width 容器宽度
+     * @param radius 圆柱体半径
+     * @param step 网格间距
+     * @param strategyKey 策略标识
+     * @return 网格模板
+     */
+    static GridTemplate build(double length, double width, double radius, double step, String strategyKey) {
+        int countX = 0;
+        for (double x = radius; x <= length - radius; x += step) {
+            countX++;
+        }
+        int countY = 0;
+        for (double y = radius; y <= width - radius; y += step) {
+            countY++;
+        }
+
+        int size = countX * countY;
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        int index = 0;
+        for (double x = radius; x <= length - radius; x += step) {
+            for (double y = radius; y <= width - radius; y += step) {
+                xs[index] = x;
+                ys[index] = y;
+                index++;
+            }
+        }
+
+        double[] keys;
+        if ("quantity".equals(strategyKey)) {
+            keys = new double[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = xs[i] * xs[i] + ys[i] * ys[i];
+            }
+        } else if ("volume".equals(strategyKey)) {
+            keys = new double[size];
+            for (int i = 0; i < size; i++) {
+                double dx = length - xs[i];
+                double dy = width - ys[i];
+                keys[i] = -(dx * dx + dy * dy);
+            }
+        } else {
+            return new GridTemplate(xs, ys);
+        }
+
+        int[] order = stableOrder(keys);
+        double[] sortedXs = new double[size];
+        double[] sortedYs = new double[size];
+        for (int i = 0; i < size; i++) {
+            sortedXs[i] = xs[order[i]];
+            sortedYs[i] = ys[order[i]];
+        }
+        return new GridTemplate(sortedXs, sortedYs);
+    }
+
+    int size() {
+        return xs.length;
+    }
+
+    double x(int index) {
+        return xs[index];
+    }
+
+    double y(int index) {
+        return ys[index];
+    }
+
+    /**
+     * 按键值升序的稳定排序（归并排序），只使用基本类型数组
+     * @param keys 键值
+     * @return 下标顺序
+     */
+    static int[] stableOrder(double[] keys) {
+        int size = keys.length;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int from = 0; from < size - width; from += 2 * width) {
+                int middle = from + width;
+                int to = Math.min(from + 2 * width, size);
+                int left = from;
+                int right = middle;
+                int out = from;
+                while (left < middle && right < to) {
+                    buffer[out++] = keys[order[right]] < keys[order[left]] ? order[right++] : order[left++];
+                }
+                while (left < middle) {
+                    buffer[out++] = order[left++];
+                }
+                while (right < to) {
+                    buffer[out++] = order[right++];
+                }
+                System.arraycopy(buffer, from, order, from, to - from);
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,101 @@
+package com.container.loading.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网格模板缓存
+ * 网格点的排列顺序只取决于容器尺寸、策略、半径和网格间距，
+ * 这些参数在同一批货物中大量重复，因此按参数缓存排好序的模板，按最近最少使用淘汰。
+ * 可被多个装载任务并发访问。
+ */
+class GridTemplateCache {
+
+    private final Map<Key, GridTemplate> templates;
+
+    /**
+     * @param maxEntries 最多缓存的模板数量
+     */
+    GridTemplateCache(int maxEntries) {
+        this.templates = new LinkedHashMap<Key, GridTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, GridTemplate> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取排好序的网格模板，不存在时生成并缓存
+     *
+     * @param length 容器长度
+     * @param width 容器宽度
+     * @param radius 圆柱体半径
+     * @param step 网格间距
+     * @param strategyKey 策略标识
+     * @return 网格模板
+     */
+    GridTemplate get(double length, double width, double radius, double step, String strategyKey) {
+        Key key = new Key(length, width, orderingOf(strategyKey), radius, step);
+        synchronized (templates) {
+            GridTemplate template = templates.get(key);
+            if (template != null) {
+                return template;
+            }
+        }
+        // 在锁外生成模板，避免阻塞其他任务；并发生成同一模板时结果相同，保留任意一个即可
+        GridTemplate template = GridTemplate.build(length, width, radius, step, strategyKey);
+        synchronized (templates) {
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    // 只有数量优先和体积优先会重新排序，其他策略共用网格顺序
+    private static String orderingOf(String strategyKey) {
+        if ("quantity".equals(strategyKey) || "volume".equals(strategyKey)) {
+            return strategyKey;
+        }
+        return "grid";
+    }
+
+    // 缓存键：容器尺寸、排序方式、半径和网格间距
+    private static final class Key {
+        private final double length;
+        private final double width;
+        private final String ordering;
+        private final double radius;
+        private final double step;
+
+        Key(double length, double width, String ordering, double radius, double step) {
+            this.length = length;
+            this.width = width;
+            this.ordering = ordering;
+            this.radius = radius;
+            this.step = step;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return length == other.length && width == other.width && radius == other.radius
+                    && step == other.step && ordering.equals(other.ordering);
+        }
+
+        @Override
+        public int hashCode() {
+            // 不用 Objects.hash，避免每次查找装箱；-0.0 与 0.0 相等，哈希值也须相同
+            int hash = Double.hashCode(length + 0.0);
+            hash = 31 * hash + Double.hashCode(width + 0.0);
+            hash = 31 * hash + ordering.hashCode();
+            hash = 31 * hash + Double.hashCode(radius + 0.0);
+            return 31 * hash + Double.hashCode(step + 0.0);
+        }
+    }
+}
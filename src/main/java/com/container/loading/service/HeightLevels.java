@@ -0,0 +1,79 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+
+/**
+ * 高度层集合
+ * 以基本类型数组保存从低到高排列、互不相同的顶面高度，放置圆柱体时增量插入；
+ * 相差不超过容差的高度视为同一层，查询时可直接跳过放不下的高层。
+ */
+final class HeightLevels {
+
+    // 视为同一高度层的容差
+    private static final double EPS = 1e-9;
+
+    private double[] levels = new double[16];
+    private int size;
+
+    HeightLevels() {
+        clear();
+    }
+
+    /**
+     * 清空全部高度层，只保留地面层
+     */
+    void clear() {
+        size = 0;
+        // 地面层
+        add(0.0);
+    }
+
+    /**
+     * 插入一个高度层，与已有高度层相差不超过容差时合并，合并后保留较高的值：
+     * 重叠检查不使用容差，放在较低值上的圆柱体会与顶面略高的圆柱体重叠
+     * @param level 高度
+     */
+    void add(double level) {
+        int index = Arrays.binarySearch(levels, 0, size, level);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (insertAt < size && levels[insertAt] - level <= EPS) {
+            return;
+        }
+        if (insertAt > 0 && level - levels[insertAt - 1] <= EPS) {
+            // 与更高一层相差大于容差（已在上面检查），替换后仍然有序
+            levels[insertAt - 1] = level;
+            return;
+        }
+        if (size == levels.length) {
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+        levels[insertAt] = level;
+        size++;
+    }
+
+    /**
+     * 统计不高于给定高度的高度层数量，即从最低层开始可以尝试的层数
+     * @param maxLevel 高度上限，通常为容器高度减去圆柱体高度
+     * @return 高度层数量
+     */
+    int countAtMost(double maxLevel) {
+        int index = Arrays.binarySearch(levels, 0, size, maxLevel);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * @param index 下标，从最低层开始
+     * @return 高度
+     */
+    double get(int index) {
+        return levels[index];
+    }
+
+    int size() {
+        return size;
+    }
+}
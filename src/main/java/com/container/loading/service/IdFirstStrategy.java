@@ -15,6 +15,12 @@ public class IdFirstStrategy implements LoadingStrategy {
         cylinders.sort((c1, c2) -> Integer.compare(c1.getId(), c2.getId()));
     }
     
+    @Override
+    public boolean sortsBySpecification() {
+        // 编号顺序与规格无关，需要对每个圆柱体排序
+        return false;
+    }
+    
     @Override
     public String getStrategyName() {
         return "编号优先";
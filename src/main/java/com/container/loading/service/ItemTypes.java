@@ -0,0 +1,135 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Cylinder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 圆柱体规格
+ * 半径、高度和价值都相同的圆柱体只是编号不同，合并为一种规格并记录数量：
+ * 排序、可行性记录和放置决策都以规格为单位，只有输出装载顺序时才展开为各个圆柱体。
+ * 规格编号按首次出现的先后分配，同一规格的圆柱体按原列表中的顺序排列。
+ * 构造后不再修改，可在多个放置内核之间共享。
+ */
+final class ItemTypes {
+
+    // 每个圆柱体的规格编号
+    private final int[] typeOf;
+    // 按规格排列的圆柱体编号，第t种规格的圆柱体为 items[offsets[t], offsets[t + 1])
+    private final int[] offsets;
+    private final int[] items;
+
+    private ItemTypes(int[] typeOf, int typeCount) {
+        this.typeOf = typeOf;
+        this.offsets = new int[typeCount + 1];
+        for (int type : typeOf) {
+            offsets[type + 1]++;
+        }
+        for (int type = 0; type < typeCount; type++) {
+            offsets[type + 1] += offsets[type];
+        }
+        this.items = new int[typeOf.length];
+        int[] next = new int[typeCount];
+        for (int item = 0; item < typeOf.length; item++) {
+            int type = typeOf[item];
+            items[offsets[type] + next[type]++] = item;
+        }
+    }
+
+    /**
+     * 按半径、高度和价值对圆柱体分组
+     * @param cylinders 圆柱体列表，圆柱体编号即其下标
+     * @return 规格分组
+     */
+    static ItemTypes of(List<Cylinder> cylinders) {
+        int[] typeOf = new int[cylinders.size()];
+        Map<Key, Integer> types = new HashMap<>();
+        for (int item = 0; item < typeOf.length; item++) {
+            Cylinder cylinder = cylinders.get(item);
+            Key key = new Key(cylinder.getRadius(), cylinder.getHeight(), cylinder.getValue());
+            Integer type = types.get(key);
+            if (type == null) {
+                type = types.size();
+                types.put(key, type);
+            }
+            typeOf[item] = type;
+        }
+        return new ItemTypes(typeOf, types.size());
+    }
+
+    int typeCount() {
+        return offsets.length - 1;
+    }
+
+    int typeOf(int item) {
+        return typeOf[item];
+    }
+
+    /**
+     * @param type 规格编号
+     * @return 该规格的圆柱体数量
+     */
+    int count(int type) {
+        return offsets[type + 1] - offsets[type];
+    }
+
+    /**
+     * @param type 规格编号
+     * @param index 在该规格中的下标
+     * @return 圆柱体编号
+     */
+    int item(int type, int index) {
+        return items[offsets[type] + index];
+    }
+
+    /**
+     * 把规格顺序展开为圆柱体顺序，同一规格的圆柱体连续排列
+     * @param typeOrder 全部规格编号的排列
+     * @return 圆柱体编号顺序
+     */
+    int[] expand(int[] typeOrder) {
+        int[] order = new int[items.length];
+        int index = 0;
+        for (int type : typeOrder) {
+            int count = count(type);
+            System.arraycopy(items, offsets[type], order, index, count);
+            index += count;
+        }
+        return order;
+    }
+
+    // 分组键：半径、高度和价值
+    private static final class Key {
+        private final double radius;
+        private final double height;
+        private final double value;
+
+        Key(double radius, double height, double value) {
+            this.radius = radius;
+            this.height = height;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return radius == other.radius && height == other.height && value == other.value;
+        }
+
+        @Override
+        public int hashCode() {
+            // 每个圆柱体计算一次，不装箱；-0.0 与 0.0 视为相同
+            int hash = Double.hashCode(radius + 0.0);
+            hash = 31 * hash + Double.hashCode(height + 0.0);
+            return 31 * hash + Double.hashCode(value + 0.0);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 相同圆柱体的格点图案装载
+ * 装载顺序中连续出现的一组半径和高度都相同的圆柱体，不再逐个探测候选位置，
+ * 而是按 {@link LatticePattern} 的格点从最低的高度层开始逐层放置：
+ * 先查该高度层的占用栅格，落在已被完全覆盖的格子里的格点不做重叠检查，其余格点只需一次重叠检查；
+ * 每个高度层记录扫描游标，游标之前的格点都已被占用，之后同样半径的圆柱体从游标继续扫描。
+ * 格点放完后再用候选位置引擎填补该层剩余的空隙，然后才进入上一层。
+ * 图案按容器底面尺寸和半径缓存，按最近最少使用淘汰，可被多个装载任务并发访问。
+ */
+class LatticePacker {
+
+    // 连续相同的圆柱体达到此数量时才使用格点图案
+    static final int MIN_GROUP_SIZE = 8;
+
+    private final Map<Key, LatticePattern> patterns;
+
+    /**
+     * @param maxEntries 最多缓存的图案数量
+     */
+    LatticePacker(int maxEntries) {
+        this.patterns = new LinkedHashMap<Key, LatticePattern>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LatticePattern> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 查找从 from 开始、半径和高度都与 order[from] 相同的连续圆柱体的结束下标
+     * @param kernel 放置内核
+     * @param order 装载顺序
+     * @param from 起始下标
+     * @return 结束下标（不含）
+     */
+    static int groupEnd(PlacementKernel kernel, int[] order, int from) {
+        double radius = kernel.radius(order[from]);
+        double height = kernel.height(order[from]);
+        int end = from + 1;
+        while (end < order.length && kernel.radius(order[end]) == radius && kernel.height(order[end]) == height) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * 按格点图案逐层放置 order[from, to) 中的圆柱体，放不下的圆柱体保持未放置
+     * @param kernel 放置内核
+     * @param order 装载顺序，其中 [from, to) 为一组相同的圆柱体
+     * @param strategyKey 策略标识，填补空隙时决定候选位置的优先顺序
+     * @param progress 取消控制，每层检查一次；时间预算用完时停止放置
+     * @return 放置的数量
+     */
+    int pack(PlacementKernel kernel, int[] order, int from, int to, String strategyKey, LoadingProgress progress) {
+        double radius = kernel.radius(order[from]);
+        double height = kernel.height(order[from]);
+        LatticePattern pattern = patternFor(kernel.getLength(), kernel.getWidth(), radius);
+        HeightLevels heightLevels = kernel.getHeightLevels();
+        CandidateEngine candidateEngine = kernel.getCandidateEngine();
+        OccupancyRaster occupancy = kernel.getOccupancy();
+        Cursors cursors = kernel.getLatticeCursors();
+        PlacementStats stats = kernel.getStats();
+
+        int next = from;
+        // 放置过程中新的顶面会插入到当前层之上，循环时重新读取高度层数量
+        for (int level = 0; level < heightLevels.size() && next < to; level++) {
+            double z = heightLevels.get(level);
+            if (z + height > kernel.getContainerHeight()) {
+                break;
+            }
+            progress.checkCancelled();
+            if (progress.checkDeadline()) {
+                break;
+            }
+            stats.heightLevelScanned();
+            OccupancyRaster.Layer layer = occupancy.layer(z);
+            int start = cursors.get(pattern, z, kernel.getRemovals());
+            // 游标停在第一个不能确定已被占用的格点：重叠检查失败的格点对更矮的圆柱体可能仍然可行
+            int cursor = start;
+            long rejected = 0;
+            int index = start;
+            for (; index < pattern.size() && next < to; index++) {
+                double px = pattern.x(index);
+                double py = pattern.y(index);
+                if (layer.isBlocked(px, py, radius)) {
+                    rejected++;
+                } else if (kernel.fits(order[next], px, py, z)) {
+                    kernel.setPosition(order[next], px, py, z);
+                    kernel.place(order[next]);
+                    next++;
+                } else {
+                    continue;
+                }
+                if (cursor == index) {
+                    cursor++;
+                }
+            }
+            stats.gridProbed(index - start, rejected);
+            cursors.set(pattern, z, cursor, kernel.getRemovals());
+            // 格点之间和已放置圆柱体周围的空隙
+            while (next < to && candidateEngine.findPosition(order[next], z, strategyKey)) {
+                kernel.place(order[next]);
+                next++;
+            }
+        }
+        return next - from;
+    }
+
+    /**
+     * 单个放置内核中各图案在各高度层的扫描游标：下标小于游标的格点都已放置圆柱体，
+     * 或被Z区间包含该高度的圆柱体占用，放在该层的任何同样半径的圆柱体都放不下。
+     * 放置只会占用更多格点，游标只在移走圆柱体后作废。
+     */
+    static final class Cursors {
+        private LatticePattern[] patterns = new LatticePattern[8];
+        private double[] levels = new double[8];
+        private int[] indexes = new int[8];
+        private int size;
+        // 游标所属的移走次数，改变后全部作废
+        private long epoch;
+
+        int get(LatticePattern pattern, double z, long removals) {
+            if (removals != epoch) {
+                return 0;
+            }
+            for (int i = 0; i < size; i++) {
+                if (patterns[i] == pattern && levels[i] == z) {
+                    return indexes[i];
+                }
+            }
+            return 0;
+        }
+
+        void set(LatticePattern pattern, double z, int index, long removals) {
+            if (removals != epoch) {
+                size = 0;
+                epoch = removals;
+            }
+            for (int i = 0; i < size; i++) {
+                if (patterns[i] == pattern && levels[i] == z) {
+                    indexes[i] = index;
+                    return;
+                }
+            }
+            if (size == patterns.length) {
+                patterns = Arrays.copyOf(patterns, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            patterns[size] = pattern;
+            levels[size] = z;
+            indexes[size] = index;
+            size++;
+        }
+    }
+
+    private LatticePattern patternFor(double length, double width, double radius) {
+        Key key = new Key(length, width, radius);
+        synchronized (patterns) {
+            LatticePattern pattern = patterns.get(key);
+            if (pattern != null) {
+                return pattern;
+            }
+        }
+        // 在锁外生成图案；并发生成同一图案时结果相同，保留任意一个即可
+        LatticePattern pattern = LatticePattern.build(length, width, radius);
+        synchronized (patterns) {
+            patterns.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    // 缓存键：容器底面尺寸和半径
+    private static final class Key {
+        private final double length;
+        private final double width;
+        private final double radius;
+
+        Key(double length, double width, double radius) {
+            this.length = length;
+            this.width = width;
+            this.radius = radius;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return length == other.length && width == other.width && radius == other.radius;
+        }
+
+        @Override
+        public int hashCode() {
+            // 与 equals 一致：-0.0 与 0.0 视为相同；不装箱
+            int hash = Double.hashCode(length + 0.0);
+            hash = 31 * hash + Double.hashCode(width + 0.0);
+            return 31 * hash + Double.hashCode(radius + 0.0);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+
+/**
+ * 相同圆柱体的单层格点图案
+ * 在容器底面内排列半径相同的圆，比较正方形格点和两个方向、两种错位方式的六边形格点，
+ * 保留圆的数量最多的一种；坐标按先X后Y排好，放不满一层时先占满靠近原点的一端。
+ * 图案只取决于容器底面尺寸和半径，坐标保存在基本类型数组中。
+ */
+final class LatticePattern {
+
+    // 计算能排下的数量时允许的误差，恰好排满时不因浮点误差少排一个
+    private static final double COUNT_TOLERANCE = 1e-9;
+
+    private final double[] xs;
+    private final double[] ys;
+
+    private LatticePattern(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * 生成最密的单层图案
+     *
+     * @param length 容器长度
+     * @param width 容器宽度
+     * @param radius 圆柱体半径
+     * @return 格点图案，底面放不下时为空图案
+     */
+    static LatticePattern build(double length, double width, double radius) {
+        LatticePattern best = square(length, width, radius);
+        for (boolean alongX : new boolean[]{true, false}) {
+            for (boolean shiftFirstRow : new boolean[]{false, true}) {
+                LatticePattern hex = hexagonal(length, width, radius, alongX, shiftFirstRow);
+                if (hex.size() > best.size()) {
+                    best = hex;
+                }
+            }
+        }
+        best.sort();
+        return best;
+    }
+
+    // 正方形格点：圆心间距为直径
+    private static LatticePattern square(double length, double width, double radius) {
+        double[] cols = positions(length, radius, 0, 2 * radius);
+        double[] rows = positions(width, radius, 0, 2 * radius);
+        double[] xs = new double[cols.length * rows.length];
+        double[] ys = new double[cols.length * rows.length];
+        int size = 0;
+        for (double x : cols) {
+            for (double y : rows) {
+                xs[size] = x;
+                ys[size] = y;
+                size++;
+            }
+        }
+        return new LatticePattern(xs, ys);
+    }
+
+    // 六边形格点：行内圆心间距为直径，行距为 √3 倍半径，相邻行错开一个半径；
+    // alongX 为 true 时沿X方向成行，shiftFirstRow 决定第一行是否错开
+    private static LatticePattern hexagonal(double length, double width, double radius,
+                                            boolean alongX, boolean shiftFirstRow) {
+        double rowLength = alongX ? length : width;
+        double[] rows = positions(alongX ? width : length, radius, 0, Math.sqrt(3) * radius);
+        double[] full = positions(rowLength, radius, 0, 2 * radius);
+        double[] shifted = positions(rowLength, radius, radius, 2 * radius);
+
+        int capacity = rows.length * Math.max(full.length, shifted.length);
+        double[] xs = new double[capacity];
+        double[] ys = new double[capacity];
+        int size = 0;
+        for (int row = 0; row < rows.length; row++) {
+            double[] along = (row % 2 == 1) != shiftFirstRow ? shifted : full;
+            for (double position : along) {
+                xs[size] = alongX ? position : rows[row];
+                ys[size] = alongX ? rows[row] : position;
+                size++;
+            }
+        }
+        return new LatticePattern(Arrays.copyOf(xs, size), Arrays.copyOf(ys, size));
+    }
+
+    // 在长度为 extent 的范围内从 radius + offset 开始按间距 spacing 排列的圆心坐标；
+    // 恰好排满时最后一个圆紧贴边界，浮点误差由放置内核的容差吸收
+    private static double[] positions(double extent, double radius, double offset, double spacing) {
+        double usable = extent - offset - 2 * radius;
+        if (usable < 0) {
+            return new double[0];
+        }
+        int count = (int) Math.floor(usable / spacing + COUNT_TOLERANCE) + 1;
+        double[] positions = new double[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = Math.min(radius + offset + i * spacing, extent - radius);
+        }
+        return positions;
+    }
+
+    // 按先X后Y排序
+    private void sort() {
+        Integer[] indexes = new Integer[xs.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (a, b) -> xs[a] != xs[b] ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]));
+        double[] sortedXs = new double[xs.length];
+        double[] sortedYs = new double[ys.length];
+        for (int i = 0; i < indexes.length; i++) {
+            sortedXs[i] = xs[indexes[i]];
+            sortedYs[i] = ys[indexes[i]];
+        }
+        System.arraycopy(sortedXs, 0, xs, 0, xs.length);
+        System.arraycopy(sortedYs, 0, ys, 0, ys.length);
+    }
+
+    int size() {
+        return xs.length;
+    }
+
+    double x(int index) {
+        return xs[index];
+    }
+
+    double y(int index) {
+        return ys[index];
+    }
+}
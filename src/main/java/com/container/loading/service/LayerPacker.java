@@ -0,0 +1,237 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 分层装载
+ * 按高度从高到低把圆柱体分成高度带：高度不低于带内最高圆柱体 {@link #BAND_RATIO} 倍的圆柱体归入同一带，
+ * 同一层内的圆柱体无法相互叠放，每层只需求解二维的圆形装填。
+ * 每个高度带逐层构建：层内按半径从大到小放置，连续相同的圆柱体按格点图案放置，其余逐个寻找位置；
+ * 一层放不下的圆柱体进入该带的下一层。各高度带相互独立，在线程池中并行构建。
+ * 最后按体积密度（层内圆柱体体积 / 层高）从高到低选出放得下的层，从容器底部依次叠放。
+ */
+final class LayerPacker {
+
+    // 高度带内最矮与最高圆柱体的高度比下限，大于0.5时层内的圆柱体无法叠放
+    static final double BAND_RATIO = 0.8;
+
+    private final LatticePacker latticePacker;
+
+    /**
+     * @param latticePacker 层内相同圆柱体使用的格点图案
+     */
+    LayerPacker(LatticePacker latticePacker) {
+        this.latticePacker = latticePacker;
+    }
+
+    /**
+     * 按高度分带，并行构建各高度带的层
+     * @param container 容器
+     * @param cylinders 圆柱体列表，编号即其下标
+     * @param order 按高度从高到低排列的圆柱体编号
+     * @param placer 在层内为圆柱体寻找位置
+     * @param strategyKey 策略标识，决定格点之间空隙的填补顺序
+     * @param executor 构建各高度带的线程池
+     * @param progress 进度与取消控制，每个圆柱体在所属高度带构建完成时计数一次
+     * @return 各高度带构建的全部层
+     * @throws CancellationException 计算被取消或中断
+     */
+    List<Layer> build(Container container, List<Cylinder> cylinders, int[] order, OrderSearch.Placer placer,
+                      String strategyKey, ExecutorService executor, LoadingProgress progress) {
+        List<Callable<List<Layer>>> tasks = new ArrayList<>();
+        int from = 0;
+        while (from < order.length) {
+            double bandHeight = cylinders.get(order[from]).getHeight();
+            int to = from + 1;
+            while (to < order.length && cylinders.get(order[to]).getHeight() >= bandHeight * BAND_RATIO) {
+                to++;
+            }
+            int[] band = Arrays.copyOfRange(order, from, to);
+            tasks.add(() -> buildBand(container, cylinders, band, placer, strategyKey, progress));
+            from = to;
+        }
+
+        List<Future<List<Layer>>> results;
+        try {
+            results = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            progress.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("装载计算被中断");
+        }
+
+        List<Layer> layers = new ArrayList<>();
+        for (Future<List<Layer>> result : results) {
+            layers.addAll(awaitResult(result));
+        }
+        return layers;
+    }
+
+    /**
+     * 按体积密度从高到低选出放得下的层，从容器底部依次叠放到放置内核中
+     * @param kernel 容器的放置内核，需为新建状态
+     * @param layers 候选的层
+     * @return 叠放的层数
+     */
+    static int stack(PlacementKernel kernel, List<Layer> layers) {
+        List<Layer> sorted = new ArrayList<>(layers);
+        sorted.sort((l1, l2) -> Double.compare(l2.volume / l2.height, l1.volume / l1.height));
+        double z = 0;
+        int stacked = 0;
+        for (Layer layer : sorted) {
+            if (z + layer.height > kernel.getContainerHeight()) {
+                continue;
+            }
+            for (int i = 0; i < layer.items.length; i++) {
+                kernel.setPosition(layer.items[i], layer.x[i], layer.y[i], z);
+                kernel.place(layer.items[i]);
+            }
+            z += layer.height;
+            stacked++;
+        }
+        return stacked;
+    }
+
+    // 逐层构建一个高度带，层数不超过容器高度能容纳的数量
+    private List<Layer> buildBand(Container container, List<Cylinder> cylinders, int[] band,
+                                  OrderSearch.Placer placer, String strategyKey, LoadingProgress progress) {
+        // 层内按半径从大到小放置，半径相同时高的在前，相同的圆柱体保持连续
+        Integer[] sorted = new Integer[band.length];
+        for (int i = 0; i < band.length; i++) {
+            sorted[i] = band[i];
+        }
+        Arrays.sort(sorted, (i1, i2) -> {
+            Cylinder c1 = cylinders.get(i1);
+            Cylinder c2 = cylinders.get(i2);
+            int byRadius = Double.compare(c2.getRadius(), c1.getRadius());
+            return byRadius != 0 ? byRadius : Double.compare(c2.getHeight(), c1.getHeight());
+        });
+        int[] remaining = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            remaining[i] = sorted[i];
+        }
+
+        double bandHeight = cylinders.get(band[0]).getHeight();
+        Container layerContainer = new Container();
+        layerContainer.setLength(container.getLength());
+        layerContainer.setWidth(container.getWidth());
+        layerContainer.setHeight(bandHeight);
+        int maxLayers = bandHeight > 0 ? (int) Math.floor(container.getHeight() / bandHeight) : 0;
+
+        List<Layer> layers = new ArrayList<>();
+        while (remaining.length > 0 && layers.size() < maxLayers) {
+            progress.checkCancelled();
+            if (progress.checkDeadline()) {
+                break;
+            }
+            // 每层使用独立的放置内核，内核中的编号是剩余圆柱体的下标
+            List<Cylinder> layerCylinders = new ArrayList<>(remaining.length);
+            for (int item : remaining) {
+                layerCylinders.add(cylinders.get(item));
+            }
+            PlacementKernel kernel = new PlacementKernel(layerContainer, layerCylinders);
+            fill(kernel, placer, strategyKey, progress);
+            // 空的层都放不下时，剩余的圆柱体在任何一层都放不下
+            if (kernel.getPlacedCount() == 0) {
+                break;
+            }
+
+            layers.add(new Layer(kernel, remaining));
+            int[] next = new int[remaining.length - kernel.getPlacedCount()];
+            int count = 0;
+            for (int i = 0; i < remaining.length; i++) {
+                if (kernel.isPlaced(i)) {
+                    progress.itemProcessed();
+                } else {
+                    next[count++] = remaining[i];
+                }
+            }
+            remaining = next;
+        }
+        for (int i = 0; i < remaining.length; i++) {
+            progress.itemProcessed();
+        }
+        return layers;
+    }
+
+    // 按顺序在层内放置圆柱体：连续相同的圆柱体按格点图案放置，其余逐个寻找位置
+    private void fill(PlacementKernel kernel, OrderSearch.Placer placer, String strategyKey, LoadingProgress progress) {
+        int[] order = new int[kernel.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int index = 0;
+        while (index < order.length) {
+            int groupEnd = LatticePacker.groupEnd(kernel, order, index);
+            if (groupEnd - index >= LatticePacker.MIN_GROUP_SIZE) {
+                latticePacker.pack(kernel, order, index, groupEnd, strategyKey, progress);
+                index = groupEnd;
+                continue;
+            }
+            int item = order[index++];
+            progress.checkCancelled();
+            if (progress.checkDeadline()) {
+                break;
+            }
+            if (placer.findPosition(item, kernel)) {
+                kernel.place(item);
+            }
+        }
+    }
+
+    private static <T> T awaitResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("装载计算被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("分层装载失败", cause);
+        }
+    }
+
+    /**
+     * 一层：层内圆柱体的编号和平面坐标，层高为其中最高的圆柱体的高度
+     */
+    static final class Layer {
+        private final int[] items;
+        private final double[] x;
+        private final double[] y;
+        private final double height;
+        private final double volume;
+
+        // 从层的放置内核中取出已放置的圆柱体，items 为内核编号对应的圆柱体编号
+        private Layer(PlacementKernel kernel, int[] items) {
+            int count = kernel.getPlacedCount();
+            this.items = new int[count];
+            this.x = new double[count];
+            this.y = new double[count];
+            double maxHeight = 0;
+            double totalVolume = 0;
+            for (int i = 0; i < count; i++) {
+                int item = kernel.placedItem(i);
+                this.items[i] = items[item];
+                this.x[i] = kernel.x(item);
+                this.y[i] = kernel.y(item);
+                maxHeight = Math.max(maxHeight, kernel.height(item));
+                totalVolume += kernel.volume(item);
+            }
+            this.height = maxHeight;
+            this.volume = totalVolume;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Cylinder;
+import java.util.List;
+
+/**
+ * 分层装载策略
+ * 按高度把圆柱体分成高度带，每个高度带逐层求解二维的圆形装填，再把各层叠放进容器，
+ * 剩余的圆柱体填入层间和顶部的空间；分层过程见 {@link LayerPacker}
+ */
+public class LayerStrategy implements LoadingStrategy {
+
+    @Override
+    public void sortCylinders(List<Cylinder> cylinders) {
+        // 按高度从高到低排序，高度相同时半径大的在前
+        cylinders.sort((c1, c2) -> {
+            int byHeight = Double.compare(c2.getHeight(), c1.getHeight());
+            return byHeight != 0 ? byHeight : Double.compare(c2.getRadius(), c1.getRadius());
+        });
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "分层装载";
+    }
+}
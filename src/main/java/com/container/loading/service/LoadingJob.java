@@ -0,0 +1,114 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * 异步装载任务
+ * 记录任务的输入、状态、进度和结果，由 {@link LoadingJobService} 创建和调度
+ */
+public class LoadingJob {
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        QUEUED,     // 排队中
+        RUNNING,    // 计算中
+        COMPLETED,  // 已完成
+        FAILED,     // 计算失败
+        CANCELLED   // 已取消
+    }
+
+    private final String id;
+    private final List<Cylinder> cylinders;
+    private final Container container;
+    private final String strategyKey;
+    private final String strategyName;
+    private final LoadingProgress progress = new LoadingProgress();
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+    private volatile long finishedAt;
+    private volatile Future<?> future;
+
+    LoadingJob(String id, List<Cylinder> cylinders, Container container, String strategyKey, String strategyName) {
+        this.id = id;
+        this.cylinders = cylinders;
+        this.container = container;
+        this.strategyKey = strategyKey;
+        this.strategyName = strategyName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return 圆柱体列表，任务完成后包含装载位置
+     */
+    public List<Cylinder> getCylinders() {
+        return cylinders;
+    }
+
+    public Container getContainer() {
+        return container;
+    }
+
+    public String getStrategyKey() {
+        return strategyKey;
+    }
+
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    public LoadingProgress getProgress() {
+        return progress;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return 任务是否已结束（完成、失败或取消）
+     */
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markFinished(Status status, String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = status;
+    }
+}
@@ -0,0 +1,143 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步装载任务服务
+ * 在有界线程池中执行装载计算，排队任务数超过上限时拒绝新任务；
+ * 已结束的任务保留一段时间供查询结果，之后自动清理
+ */
+@Service
+public class LoadingJobService {
+
+    private final LoadingService loadingService;
+    private final ThreadPoolExecutor executor;
+    private final long retentionMillis;
+    private final Map<String, LoadingJob> jobs = new ConcurrentHashMap<>();
+
+    public LoadingJobService(LoadingService loadingService,
+                             @Value("${loading.jobs.workers:2}") int workers,
+                             @Value("${loading.jobs.queue-capacity:16}") int queueCapacity,
+                             @Value("${loading.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.loadingService = loadingService;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "loading-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 提交不限时的装载任务
+     * @param cylinders 圆柱体列表
+     * @param container 容器
+     * @param strategyKey 策略标识
+     * @return 新建的任务
+     * @throws RejectedExecutionException 排队任务已满
+     */
+    public LoadingJob submit(List<Cylinder> cylinders, Container container, String strategyKey) {
+        return submit(cylinders, container, strategyKey, 0);
+    }
+
+    /**
+     * 提交装载任务
+     * @param cylinders 圆柱体列表
+     * @param container 容器
+     * @param strategyKey 策略标识
+     * @param timeBudgetMillis 计算的时间预算（毫秒），从任务开始执行时计时，0表示不限时
+     * @return 新建的任务
+     * @throws RejectedExecutionException 排队任务已满
+     */
+    public LoadingJob submit(List<Cylinder> cylinders, Container container, String strategyKey, long timeBudgetMillis) {
+        removeExpiredJobs();
+
+        String strategyName = loadingService.getAvailableStrategies().get(strategyKey);
+        LoadingJob job = new LoadingJob(UUID.randomUUID().toString(), cylinders, container, strategyKey, strategyName);
+        job.getProgress().setTimeBudget(timeBudgetMillis);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * @param jobId 任务编号
+     * @return 任务，不存在或已过期时为空
+     */
+    public Optional<LoadingJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * 取消任务：排队中的任务不再执行，计算中的任务会在放置循环中尽快停止
+     * @param jobId 任务编号
+     * @return 被取消的任务，不存在时为空
+     */
+    public Optional<LoadingJob> cancel(String jobId) {
+        LoadingJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.getProgress().cancel();
+        if (job.getFuture() != null && job.getFuture().cancel(false) && job.getStatus() == LoadingJob.Status.QUEUED) {
+            // 尚未开始执行的任务直接标记为已取消，并移出等待队列
+            job.markFinished(LoadingJob.Status.CANCELLED, null);
+            executor.purge();
+        }
+        return Optional.of(job);
+    }
+
+    private void run(LoadingJob job) {
+        if (job.getProgress().isCancelled()) {
+            job.markFinished(LoadingJob.Status.CANCELLED, null);
+            return;
+        }
+        job.markRunning();
+        try {
+            loadingService.calculateLoading(job.getCylinders(), job.getContainer(), job.getStrategyKey(),
+                    job.getProgress());
+            job.markFinished(LoadingJob.Status.COMPLETED, null);
+        } catch (CancellationException e) {
+            job.markFinished(LoadingJob.Status.CANCELLED, null);
+        } catch (RuntimeException e) {
+            job.markFinished(LoadingJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    // 清理结束时间超过保留期限的任务
+    private void removeExpiredJobs() {
+        long expireBefore = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < expireBefore);
+    }
+
+    // 应用关闭时停止所有任务
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.getProgress().cancel());
+        executor.shutdownNow();
+    }
+}
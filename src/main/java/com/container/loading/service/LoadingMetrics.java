@@ -0,0 +1,105 @@
+package com.container.loading.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 装载计算的运行指标
+ * 各阶段耗时记录在计时器 loading.phase 中（标签 phase、strategy），
+ * 价值最大化策略的各个候选方案记录在 loading.portfolio.pass 中（标签 pass）；
+ * 探测次数等计数先在 {@link PlacementStats} 中累加，每个方案结束时计入计数器
+ */
+class LoadingMetrics {
+
+    static final String PHASE_SORT = "sort";
+    static final String PHASE_FIRST_PASS = "first-pass";
+    static final String PHASE_PORTFOLIO = "portfolio";
+    static final String PHASE_REFINED = "refined";
+    static final String PHASE_LOCAL_SEARCH = "local-search";
+    static final String PHASE_ORDER_SEARCH = "order-search";
+    static final String PHASE_LAYERS = "layers";
+    static final String PHASE_TOTAL = "total";
+
+    private final MeterRegistry registry;
+
+    LoadingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     * @param phase 阶段名称
+     * @param strategyKey 策略标识
+     * @param startNanos 阶段开始时的 System.nanoTime()
+     */
+    void recordPhase(String phase, String strategyKey, long startNanos) {
+        registry.timer("loading.phase", "phase", phase, "strategy", strategyKey)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录价值最大化策略中一个候选方案的耗时
+     * @param pass 方案名称
+     * @param startNanos 方案开始时的 System.nanoTime()
+     */
+    void recordPortfolioPass(String pass, long startNanos) {
+        registry.timer("loading.portfolio.pass", "pass", pass)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 将一个放置内核的探测统计计入计数器
+     * @param strategyKey 策略标识
+     * @param stats 探测统计
+     */
+    void recordStats(String strategyKey, PlacementStats stats) {
+        registry.counter("loading.candidates.probed", "strategy", strategyKey).increment(stats.getCandidatesProbed());
+        registry.counter("loading.overlap.checks", "strategy", strategyKey).increment(stats.getOverlapChecks());
+        registry.counter("loading.height.levels.scanned", "strategy", strategyKey).increment(stats.getHeightLevelsScanned());
+        registry.counter("loading.searches.skipped", "strategy", strategyKey).increment(stats.getSearchesSkipped());
+        registry.counter("loading.raster.rejections", "strategy", strategyKey).increment(stats.getRasterRejections());
+    }
+
+    /**
+     * 记录装载顺序搜索完成的解码次数
+     * @param count 解码次数
+     */
+    void recordDecodes(long count) {
+        registry.counter("loading.order.search.decodes").increment(count);
+    }
+
+    /**
+     * 记录最终未能放置的圆柱体数量
+     * @param strategyKey 策略标识
+     * @param count 未放置数量
+     */
+    void recordUnplaced(String strategyKey, long count) {
+        registry.counter("loading.items.unplaced", "strategy", strategyKey).increment(count);
+    }
+
+    /**
+     * 注册方案缓存的条目数指标
+     * @param planCache 方案缓存
+     */
+    void registerPlanCache(PlanCache planCache) {
+        registry.gauge("loading.plan.cache.size", planCache, PlanCache::size);
+    }
+
+    /**
+     * 记录一次方案缓存查询
+     * @param strategyKey 策略标识
+     * @param hit 是否命中
+     */
+    void recordPlanCacheLookup(String strategyKey, boolean hit) {
+        registry.counter("loading.plan.cache", "strategy", strategyKey, "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * 记录一次因时间预算用完而提前结束的计算
+     * @param strategyKey 策略标识
+     */
+    void recordTimeLimited(String strategyKey) {
+        registry.counter("loading.time.limited", "strategy", strategyKey).increment();
+    }
+}
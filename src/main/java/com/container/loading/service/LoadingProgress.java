@@ -0,0 +1,118 @@
+package com.container.loading.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 装载进度与取消控制
+ * 由调用方创建并传入装载计算，计算过程中更新已处理的圆柱体数量，
+ * 并在放置循环中检查是否已被取消，取消后尽快抛出 {@link CancellationException} 结束计算。
+ * 设置时间预算后，超时不会抛出异常，而是停止继续搜索，返回已经得到的完整方案并标记为受时间限制
+ */
+public class LoadingProgress {
+
+    private final AtomicInteger processed = new AtomicInteger();
+    private volatile int total;  // 只由计算线程写入
+    private volatile boolean cancelled;
+    // 时间预算（毫秒），0表示不限时；计算开始时换算为截止时间
+    private volatile long timeBudgetMillis;
+    private volatile long deadlineNanos;
+    private volatile boolean deadlineSet;
+    private volatile boolean timeLimited;
+
+    /**
+     * 请求取消装载计算
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 设置时间预算，从装载计算开始时计时
+     * @param timeBudgetMillis 时间预算（毫秒），0表示不限时
+     */
+    public void setTimeBudget(long timeBudgetMillis) {
+        if (timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("时间预算不能为负数：" + timeBudgetMillis);
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * @return 计算是否因时间预算用完而提前停止搜索
+     */
+    public boolean isTimeLimited() {
+        return timeLimited;
+    }
+
+    /**
+     * @return 已处理（放置或确认无法放置）的圆柱体数量，价值最大化策略按每个方案分别计数
+     */
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * @return 需要处理的圆柱体总数
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    // 开始计算，设置需要处理的总数
+    void start(int total) {
+        this.total = total;
+        processed.set(0);
+    }
+
+    // 追加需要处理的数量（例如进入精细搜索阶段时）
+    void addTotal(int count) {
+        total += count;
+    }
+
+    // 全部圆柱体处理完毕（例如直接套用缓存的方案）
+    void markAllProcessed() {
+        processed.set(total);
+    }
+
+    // 一个圆柱体处理完毕
+    void itemProcessed() {
+        processed.incrementAndGet();
+    }
+
+    // 装载计算开始，按时间预算设置截止时间
+    void startClock() {
+        long budget = timeBudgetMillis;
+        if (budget > 0) {
+            deadlineNanos = System.nanoTime() + budget * 1_000_000;
+            deadlineSet = true;
+        }
+    }
+
+    // 检查时间预算是否已用完，用完后不再继续搜索；只在还有待处理的工作时调用
+    boolean checkDeadline() {
+        if (timeLimited) {
+            return true;
+        }
+        if (deadlineSet && System.nanoTime() - deadlineNanos >= 0) {
+            timeLimited = true;
+        }
+        return timeLimited;
+    }
+
+    // 距截止时间剩余的纳秒数，不限时时返回 Long.MAX_VALUE
+    long remainingNanos() {
+        return deadlineSet ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    // 已被取消或线程被中断时结束计算
+    void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("装载计算已取消");
+        }
+    }
+}
@@ -2,28 +2,121 @@ package com.container.loading.service;
 
 import com.container.loading.model.Container;
 import com.container.loading.model.Cylinder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Random;
-import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class LoadingService {
+    private static final Logger log = LoggerFactory.getLogger(LoadingService.class);
+    
+    // 网格模板缓存的最大条目数
+    private static final int GRID_TEMPLATE_CACHE_SIZE = 256;
+    // 格点图案缓存的最大条目数
+    private static final int LATTICE_PATTERN_CACHE_SIZE = 64;
+    
     private final Random random = new Random();
     private final Map<String, LoadingStrategy> strategies;
+    private final GridTemplateCache gridTemplates = new GridTemplateCache(GRID_TEMPLATE_CACHE_SIZE);
+    private final LatticePacker latticePacker = new LatticePacker(LATTICE_PATTERN_CACHE_SIZE);
+    private final LayerPacker layerPacker = new LayerPacker(latticePacker);
+    // 精细搜索中每隔 CANCEL_CHECK_MASK + 1 个候选位置检查一次取消状态
+    private static final int CANCEL_CHECK_MASK = 1023;
     
-    // 构造函数，初始化所有策略
+    // 候选位置数量达到此值时才值得并行探测
+    private static final int PARALLEL_PROBE_THRESHOLD = 4096;
+    
+    // 价值最大化策略并行计算多个方案所用的线程池，线程数不超过CPU核数
+    private final ExecutorService portfolioExecutor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), daemonThreads("loading-portfolio-"));
+    private final ParallelProbe parallelProbe = new ParallelProbe(Runtime.getRuntime().availableProcessors());
+    // 是否对单个圆柱体的精细搜索启用并行探测（默认关闭）
+    private boolean parallelProbeEnabled;
+    private final LoadingMetrics metrics;
+    // 装载顺序搜索的时间上限和所有岛合计的最大迭代次数
+    private long orderSearchTimeMillis = 2000;
+    private int orderSearchMaxIterations = 20000;
+    // 装载方案缓存，默认不启用；由Spring创建时按配置启用
+    private PlanCache planCache = new PlanCache(0, 0);
+    
+    // 不依赖Spring容器时使用，运行指标只保存在内存中
     public LoadingService() {
+        this(new SimpleMeterRegistry());
+    }
+    
+    // 构造函数，初始化所有策略
+    @Autowired
+    public LoadingService(MeterRegistry meterRegistry) {
+        metrics = new LoadingMetrics(meterRegistry);
         strategies = new HashMap<>();
         strategies.put("volume", new VolumeFirstStrategy());
         strategies.put("quantity", new QuantityFirstStrategy());
         strategies.put("id", new IdFirstStrategy());
         strategies.put("value", new ValueFirstStrategy());
         strategies.put("valuemax", new ValueMaximizationStrategy());
+        strategies.put("anneal", new AnnealingStrategy());
+        strategies.put("layer", new LayerStrategy());
+    }
+    
+    @Value("${loading.parallel-probe:false}")
+    public void setParallelProbeEnabled(boolean parallelProbeEnabled) {
+        this.parallelProbeEnabled = parallelProbeEnabled;
+    }
+    
+    /**
+     * 配置装载顺序搜索（anneal 策略）
+     * @param timeMillis 搜索时间上限（毫秒），请求指定了时间预算时最多使用其中一半
+     * @param maxIterations 所有岛合计的最大迭代次数
+     */
+    @Autowired
+    public void configureOrderSearch(@Value("${loading.order-search.time-ms:2000}") long timeMillis,
+                                     @Value("${loading.order-search.max-iterations:20000}") int maxIterations) {
+        this.orderSearchTimeMillis = timeMillis;
+        this.orderSearchMaxIterations = maxIterations;
+    }
+    
+    /**
+     * 配置装载方案缓存
+     * @param maxEntries 最多缓存的方案数量，0表示不缓存
+     * @param ttlMinutes 方案的有效期（分钟）
+     */
+    @Autowired
+    public void configurePlanCache(@Value("${loading.plan-cache.max-entries:128}") int maxEntries,
+                                   @Value("${loading.plan-cache.ttl-minutes:30}") long ttlMinutes) {
+        planCache = new PlanCache(maxEntries, TimeUnit.MINUTES.toMillis(ttlMinutes));
+        metrics.registerPlanCache(planCache);
+    }
+    
+    // 创建守护线程，避免线程池阻止应用退出
+    static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
     
     // 获取所有可用策略
@@ -44,461 +137,611 @@ public class LoadingService {
         return String.format("#%02X%02X%02X", r, g, b);
     }
     
-    // 检查圆柱体是否与已放置的圆柱体重叠
-    private boolean checkOverlap(Cylinder newCylinder, List<Cylinder> placedCylinders) {
-        for (Cylinder placed : placedCylinders) {
-            // 计算圆柱体底面圆心之间的平面距离
-            double dx = newCylinder.getX() - placed.getX();
-            double dy = newCylinder.getY() - placed.getY();
-            double distance = Math.sqrt(dx * dx + dy * dy);
-            
-            // 如果底面圆心距离小于两个圆柱体半径之和，则发生重叠
-            if (distance < (newCylinder.getRadius() + placed.getRadius())) {
-                // 检查高度方向是否重叠
-                double newZBottom = newCylinder.getZ();
-                double newZTop = newZBottom + newCylinder.getHeight();
-                double placedZBottom = placed.getZ();
-                double placedZTop = placedZBottom + placed.getHeight();
-                
-                // 如果高度方向也重叠，则判定为发生碰撞
-                if (!(newZTop <= placedZBottom || newZBottom >= placedZTop)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-    
-    // 检查圆柱体是否超出容器边界
-    private boolean checkContainerBounds(Cylinder cylinder, Container container) {
-        // 检查X轴方向
-        if (cylinder.getX() - cylinder.getRadius() < 0 || 
-            cylinder.getX() + cylinder.getRadius() > container.getLength()) {
+    // 尝试查找可放置的位置：逐个高度层向上，在每层只评估候选位置引擎生成的相切位置
+    boolean findValidPosition(int item, PlacementKernel kernel, String strategyKey) {
+        // 剩余体积不够，或不比它大的规格在当前方案上已经找不到位置时直接返回；
+        // 每次放置都会带来新的候选位置和高度层，失败记录只在方案不变时有效
+        PlacementStats stats = kernel.getStats();
+        FailureMemo failures = kernel.getCandidateFailures();
+        double radius = kernel.radius(item);
+        double height = kernel.height(item);
+        if (kernel.volume(item) > kernel.getFreeVolume()
+                || failures.isDominated(radius, height, kernel.getVersion())) {
+            stats.searchSkipped();
             return false;
         }
         
-        // 检查Y轴方向
-        if (cylinder.getY() - cylinder.getRadius() < 0 || 
-            cylinder.getY() + cylinder.getRadius() > container.getWidth()) {
-            return false;
-        }
+        // 高度层：地面层和已放置圆柱体的顶面，从低到高；放不下该圆柱体的高层直接跳过
+        HeightLevels heightLevels = kernel.getHeightLevels();
+        int levelCount = heightLevels.countAtMost(kernel.getContainerHeight() - height);
         
-        // 检查Z轴方向
-        if (cylinder.getZ() < 0 || 
-            cylinder.getZ() + cylinder.getHeight() > container.getHeight()) {
-            return false;
+        // 遍历每个高度层，候选位置的先后顺序由策略决定
+        CandidateEngine candidateEngine = kernel.getCandidateEngine();
+        for (int level = 0; level < levelCount; level++) {
+            stats.heightLevelScanned();
+            if (candidateEngine.findPosition(item, heightLevels.get(level), strategyKey)) {
+                return true; // 找到有效位置
+            }
         }
         
-        return true;
+        failures.recordFailure(radius, height, kernel.getVersion());
+        return false; // 没有找到有效位置
     }
     
-    // 尝试查找可放置的位置 - 为数量优先策略优化
-    private boolean findValidPosition(Cylinder cylinder, Container container, List<Cylinder> placedCylinders, String strategyKey) {
-        // 针对不同策略调整网格精度
-        double gridStepFactor;
-        if ("quantity".equals(strategyKey)) {
-            // 数量优先策略使用更密集的网格
-            gridStepFactor = 40.0;
-        } else {
-            // 其他策略使用常规网格
-            gridStepFactor = 20.0;
-        }
-        
-        double gridStep = Math.min(container.getLength(), container.getWidth()) / gridStepFactor;
-        gridStep = Math.max(0.05, Math.min(gridStep, cylinder.getRadius())); // 确保网格精度不会太小，也不会大于圆柱体半径
-        
-        // 定义高度层数
-        ArrayList<Double> heightLevels = new ArrayList<>();
-        heightLevels.add(0.0); // 地面层
-        
-        // 把已放置圆柱体的顶面高度添加到层数列表
-        for (Cylinder placed : placedCylinders) {
-            double topZ = placed.getZ() + placed.getHeight();
-            if (!heightLevels.contains(topZ)) {
-                heightLevels.add(topZ);
-            }
-        }
-        
-        // 根据策略类型调整搜索顺序
-        if ("quantity".equals(strategyKey)) {
-            // 数量优先策略：优先填满底层
-            heightLevels.sort(Comparator.naturalOrder());
-        } else {
-            // 其他策略：按自然顺序
-            heightLevels.sort(Comparator.naturalOrder());
-        }
-        
-        // 遍历每个高度层
-        for (double z : heightLevels) {
-            // 创建临时网格点列表
-            List<GridPoint> gridPoints = new ArrayList<>();
-            
-            // 在每个高度层，生成网格点
-            for (double x = cylinder.getRadius(); x <= container.getLength() - cylinder.getRadius(); x += gridStep) {
-                for (double y = cylinder.getRadius(); y <= container.getWidth() - cylinder.getRadius(); y += gridStep) {
-                    gridPoints.add(new GridPoint(x, y));
+    // 按给定顺序依次放置圆柱体，返回未能放置的圆柱体编号
+    private IntList placeInOrder(PlacementKernel kernel, int[] order, String strategyKey, LoadingProgress progress) {
+        IntList unplaced = new IntList();
+        int index = 0;
+        while (index < order.length) {
+            // 连续的一组相同圆柱体按格点图案整层放置，放不下的圆柱体在各层都已尝试过
+            int groupEnd = LatticePacker.groupEnd(kernel, order, index);
+            if (groupEnd - index >= LatticePacker.MIN_GROUP_SIZE) {
+                latticePacker.pack(kernel, order, index, groupEnd, strategyKey, progress);
+                for (; index < groupEnd; index++) {
+                    int item = order[index];
+                    if (!kernel.isPlaced(item)) {
+                        unplaced.add(item);
+                        kernel.markUnplaced(item);
+                    }
+                    progress.itemProcessed();
                 }
+                continue;
             }
             
-            // 根据不同策略对网格点进行排序
-            if ("quantity".equals(strategyKey)) {
-                // 数量优先：优先选择靠近原点的位置
-                gridPoints.sort(Comparator.comparingDouble(p -> Math.sqrt(p.x * p.x + p.y * p.y)));
-            } else if ("volume".equals(strategyKey)) {
-                // 体积优先：优先选择靠近边缘的位置，以便放置大件物品
-                gridPoints.sort(Comparator.comparingDouble(p -> 
-                    -Math.sqrt((container.getLength() - p.x) * (container.getLength() - p.x) + 
-                              (container.getWidth() - p.y) * (container.getWidth() - p.y))
-                ));
-            }
-            
-            // 遍历排序后的网格点
-            for (GridPoint point : gridPoints) {
-                // 设置当前待测位置
-                cylinder.setX(point.x);
-                cylinder.setY(point.y);
-                cylinder.setZ(z);
-                
-                // 检查是否在容器内且不与其他圆柱体重叠
-                if (checkContainerBounds(cylinder, container) && !checkOverlap(cylinder, placedCylinders)) {
-                    return true; // 找到有效位置
-                }
+            int item = order[index++];
+            progress.checkCancelled();
+            // 时间预算用完后剩余的圆柱体不再尝试，方案仍然完整有效
+            if (!progress.checkDeadline() && findValidPosition(item, kernel, strategyKey)) {
+                kernel.place(item);
+            } else {
+                unplaced.add(item);
+                // 设置无效位置（放在容器外以便识别）
+                kernel.markUnplaced(item);
             }
+            progress.itemProcessed();
         }
-        
-        return false; // 没有找到有效位置
+        return unplaced;
     }
     
     public void calculateLoading(List<Cylinder> cylinders, Container container, String strategyKey) {
+        calculateLoading(cylinders, container, strategyKey, new LoadingProgress());
+    }
+    
+    /**
+     * 计算装箱方案，计算过程中更新进度，并在取消后尽快结束；
+     * 设置了时间预算时，超时后停止搜索并返回已得到的最佳完整方案
+     * @param cylinders 圆柱体列表，计算完成后写入位置
+     * @param container 容器
+     * @param strategyKey 策略标识
+     * @param progress 进度与取消控制
+     * @throws java.util.concurrent.CancellationException 计算被取消
+     */
+    public void calculateLoading(List<Cylinder> cylinders, Container container, String strategyKey,
+                                 LoadingProgress progress) {
         // 获取并应用排序策略
         LoadingStrategy strategy = strategies.getOrDefault(strategyKey, strategies.get("volume"));
+        // 指标标签只使用已知的策略标识
+        String metricKey = strategies.containsKey(strategyKey) ? strategyKey : "volume";
+        long startTime = System.nanoTime();
+        progress.startClock();
+        
+        // 同一清单、容器和策略已计算过时直接套用缓存的方案
+        String fingerprint = null;
+        if (planCache.isEnabled()) {
+            fingerprint = PlanCache.fingerprint(cylinders, container, strategyKey, strategy.sortsBySpecification());
+            boolean hit = planCache.apply(fingerprint, cylinders);
+            metrics.recordPlanCacheLookup(metricKey, hit);
+            if (hit) {
+                progress.start(cylinders.size());
+                progress.markAllProcessed();
+                return;
+            }
+        }
+        
+        // 为圆柱体分配随机颜色
+        for (Cylinder cylinder : cylinders) {
+            cylinder.setColor(generateRandomColor());
+        }
         
         // 特殊处理价值最大化策略
         if ("valuemax".equals(strategyKey) && strategy instanceof ValueMaximizationStrategy) {
-            // 增强价值最大化策略处理 - 预先计算多种可能的装载组合
-            ValueMaximizationStrategy valueMaxStrategy = (ValueMaximizationStrategy) strategy;
-            
             // 先按价值密度排序
-            strategy.sortCylinders(cylinders);
-            
-            // 保存初始排序
-            List<Cylinder> initialOrder = new ArrayList<>(cylinders);
+            long sortStart = System.nanoTime();
+            sortCylinders(strategy, cylinders);
+            ItemTypes types = ItemTypes.of(cylinders);
             
-            // 计算当前排序方式的装载结果
-            List<Cylinder> placedCylinders = new ArrayList<>();
-            List<Cylinder> unplacedCylinders = new ArrayList<>();
-            double initialTotalValue = 0;
+            // 组合多种装载顺序，各方案相互独立，并行计算后选出总价值最高的方案
+            List<PortfolioPass> portfolio = new ArrayList<>();
             
-            // 先尝试装载
-            for (Cylinder cylinder : cylinders) {
-                cylinder.setColor(generateRandomColor());
-                boolean placed = findValidPosition(cylinder, container, placedCylinders, strategyKey);
-                
-                if (placed) {
-                    placedCylinders.add(cylinder);
-                    initialTotalValue += cylinder.getValue();
-                } else {
-                    unplacedCylinders.add(cylinder);
-                    cylinder.setX(-cylinder.getRadius());
-                    cylinder.setY(-cylinder.getRadius());
-                    cylinder.setZ(-cylinder.getHeight());
-                }
-            }
-            
-            // 记录最佳方案
-            double bestTotalValue = initialTotalValue;
-            List<Cylinder> bestPlacement = new ArrayList<>(placedCylinders);
+            // 价值密度排序（与按价值/体积比排序相同）
+            portfolio.add(new PortfolioPass("density", strategyKey, identityOrder(cylinders.size())));
             
             // 尝试不同的策略排序
-            tryAlternativeStrategy(cylinders, container, "volume", bestPlacement, bestTotalValue);
-            tryAlternativeStrategy(cylinders, container, "quantity", bestPlacement, bestTotalValue);
+            portfolio.add(alternativeStrategyPass(cylinders, types, "volume"));
+            portfolio.add(alternativeStrategyPass(cylinders, types, "quantity"));
             
             // 尝试价值降序排序
-            List<Cylinder> valueOrder = new ArrayList<>(cylinders);
-            valueOrder.sort((c1, c2) -> Double.compare(c2.getValue(), c1.getValue()));
-            tryExplicitOrder(cylinders, container, valueOrder, bestPlacement, bestTotalValue);
-            
-            // 尝试价值/体积比排序
-            List<Cylinder> densityOrder = new ArrayList<>(cylinders);
-            densityOrder.sort((c1, c2) -> {
-                double volume1 = Math.PI * c1.getRadius() * c1.getRadius() * c1.getHeight();
-                double volume2 = Math.PI * c2.getRadius() * c2.getRadius() * c2.getHeight();
-                return Double.compare(c2.getValue() / volume2, c1.getValue() / volume1);
-            });
-            tryExplicitOrder(cylinders, container, densityOrder, bestPlacement, bestTotalValue);
+            portfolio.add(new PortfolioPass("value", "valuemax",
+                    sortedOrder(strategies.get("value"), cylinders, types)));
+            metrics.recordPhase(LoadingMetrics.PHASE_SORT, metricKey, sortStart);
             
-            // 应用最佳方案
-            restoreBestPlacement(cylinders, bestPlacement);
+            progress.start(cylinders.size() * portfolio.size());
+            long portfolioStart = System.nanoTime();
+            PlacementKernel.Snapshot bestPlacement = runPortfolio(cylinders, types, container, portfolio, progress);
+            metrics.recordPhase(LoadingMetrics.PHASE_PORTFOLIO, metricKey, portfolioStart);
             
-            // 进行第二轮优化
-            unplacedCylinders = cylinders.stream()
-                    .filter(c -> c.getZ() < 0)
-                    .collect(java.util.stream.Collectors.toList());
-            
-            placedCylinders = cylinders.stream()
-                    .filter(c -> c.getZ() >= 0)
-                    .collect(java.util.stream.Collectors.toList());
-                    
-            // 再次尝试优化放置
-            if (!unplacedCylinders.isEmpty()) {
-                for (Cylinder cylinder : unplacedCylinders) {
-                    tryRefinedPlacement(cylinder, container, placedCylinders, strategyKey);
+            // 应用最佳方案，并在此基础上进行第二轮优化
+            PlacementKernel bestKernel = new PlacementKernel(container, cylinders);
+            bestKernel.load(bestPlacement);
+            progress.addTotal(bestKernel.size() - bestKernel.getPlacedCount());
+            long refinedStart = System.nanoTime();
+            for (int item = 0; item < bestKernel.size(); item++) {
+                if (!bestKernel.isPlaced(item)) {
+                    if (!progress.checkDeadline()) {
+                        tryRefinedPlacement(item, bestKernel, strategyKey, progress);
+                    }
+                    progress.itemProcessed();
                 }
             }
+            metrics.recordPhase(LoadingMetrics.PHASE_REFINED, metricKey, refinedStart);
             
-            // 记录未放置数量统计
-            long finalUnplacedCount = cylinders.stream().filter(c -> c.getZ() < 0).count();
-            if (finalUnplacedCount > 0) {
-                System.out.println("警告：使用" + strategy.getStrategyName() + "策略，有" + finalUnplacedCount + "个圆柱体无法放入容器中。");
+            // 在最佳方案上进行局部搜索：用价值更高的未放置圆柱体替换已放置的圆柱体，并插入剩余空间
+            if (!progress.checkDeadline()) {
+                long localSearchStart = System.nanoTime();
+                int moves = ((ValueMaximizationStrategy) strategy).localSearch(bestKernel, item -> {
+                    if (findValidPosition(item, bestKernel, strategyKey)) {
+                        bestKernel.place(item);
+                        return true;
+                    }
+                    return false;
+                }, progress);
+                metrics.recordPhase(LoadingMetrics.PHASE_LOCAL_SEARCH, metricKey, localSearchStart);
+                log.debug("局部搜索接受{}次移动，总价值{}", moves, bestKernel.getPlacedValue());
             }
             
+            // 方案确定后一次性写回圆柱体对象
+            bestKernel.writeBack(cylinders);
+            finish(cylinders, strategy, metricKey, bestKernel, progress, startTime);
+            cachePlan(fingerprint, strategy, cylinders, progress);
             return;
         }
         
         // 常规策略处理
-        strategy.sortCylinders(cylinders);
+        long sortStart = System.nanoTime();
+        sortCylinders(strategy, cylinders);
+        ItemTypes types = ItemTypes.of(cylinders);
+        metrics.recordPhase(LoadingMetrics.PHASE_SORT, metricKey, sortStart);
         
-        List<Cylinder> placedCylinders = new ArrayList<>();
-        List<Cylinder> unplacedCylinders = new ArrayList<>();
+        // 装载顺序搜索策略先搜索装入体积最大的顺序，其他策略直接按排序结果装载
+        int[] order = identityOrder(cylinders.size());
+        if (strategy instanceof AnnealingStrategy) {
+            long searchStart = System.nanoTime();
+            order = searchOrder(cylinders, types, container, strategyKey, progress);
+            metrics.recordPhase(LoadingMetrics.PHASE_ORDER_SEARCH, metricKey, searchStart);
+        }
         
-        // 遍历每个圆柱体，寻找最优放置位置
-        for (Cylinder cylinder : cylinders) {
-            // 为圆柱体分配随机颜色
-            cylinder.setColor(generateRandomColor());
-            
-            // 寻找有效放置位置，传入策略标识
-            boolean placed = findValidPosition(cylinder, container, placedCylinders, strategyKey);
-            
-            if (placed) {
-                placedCylinders.add(cylinder);
-            } else {
-                unplacedCylinders.add(cylinder);
-                // 设置无效位置（可选：放在容器外以便识别）
-                cylinder.setX(-cylinder.getRadius());
-                cylinder.setY(-cylinder.getRadius());
-                cylinder.setZ(-cylinder.getHeight());
-            }
+        // 遍历每个圆柱体，寻找最优放置位置，传入策略标识
+        PlacementKernel kernel = new PlacementKernel(container, cylinders);
+        progress.start(cylinders.size());
+        // 分层装载策略先并行构建各层并叠放，没有叠放的圆柱体再填入层间和顶部的空间
+        if (strategy instanceof LayerStrategy) {
+            long layersStart = System.nanoTime();
+            order = stackLayers(kernel, cylinders, container, order, strategyKey, progress);
+            metrics.recordPhase(LoadingMetrics.PHASE_LAYERS, metricKey, layersStart);
+            progress.addTotal(order.length);
         }
+        long firstPassStart = System.nanoTime();
+        IntList unplaced = placeInOrder(kernel, order, strategyKey, progress);
+        metrics.recordPhase(LoadingMetrics.PHASE_FIRST_PASS, metricKey, firstPassStart);
         
         // 如果有未能放置的圆柱体，进行第二轮尝试
         // 这次使用更严格的网格搜索寻找可能的位置
-        if (!unplacedCylinders.isEmpty()) {
-            for (Cylinder cylinder : unplacedCylinders) {
-                // 再次尝试更精细的位置搜索
-                tryRefinedPlacement(cylinder, container, placedCylinders, strategyKey);
+        progress.addTotal(unplaced.size());
+        long refinedStart = System.nanoTime();
+        for (int i = 0; i < unplaced.size(); i++) {
+            if (!progress.checkDeadline()) {
+                tryRefinedPlacement(unplaced.get(i), kernel, strategyKey, progress);
             }
+            progress.itemProcessed();
         }
+        metrics.recordPhase(LoadingMetrics.PHASE_REFINED, metricKey, refinedStart);
         
-        // 如果仍有未能放置的圆柱体，显示警告（但不抛出异常，让用户看到部分装箱结果）
-        long unplacedCount = cylinders.stream().filter(c -> c.getZ() < 0).count();
-        if (unplacedCount > 0) {
-            System.out.println("警告：使用" + strategy.getStrategyName() + "策略，有" + unplacedCount + "个圆柱体无法放入容器中。");
+        // 方案确定后一次性写回圆柱体对象
+        kernel.writeBack(cylinders);
+        finish(cylinders, strategy, metricKey, kernel, progress, startTime);
+        cachePlan(fingerprint, strategy, cylinders, progress);
+    }
+    
+    // 缓存计算完成的方案，受时间预算限制的方案不是完整搜索的结果，不缓存
+    private void cachePlan(String fingerprint, LoadingStrategy strategy, List<Cylinder> cylinders,
+                           LoadingProgress progress) {
+        if (fingerprint != null && !progress.isTimeLimited()) {
+            planCache.put(fingerprint, cylinders, strategy.sortsBySpecification());
         }
     }
     
-    // 尝试替代策略排序，看是否能获得更高价值的装载方案
-    private void tryAlternativeStrategy(List<Cylinder> originalCylinders, Container container, 
-                                      String strategyKey, List<Cylinder> bestPlacement, double bestTotalValue) {
-        // 复制圆柱体列表
-        List<Cylinder> testCylinders = new ArrayList<>();
-        for (Cylinder original : originalCylinders) {
-            Cylinder copy = new Cylinder();
-            copy.setId(original.getId());
-            copy.setRadius(original.getRadius());
-            copy.setHeight(original.getHeight());
-            copy.setValue(original.getValue());
-            testCylinders.add(copy);
-        }
-        
-        // 应用策略排序
-        LoadingStrategy strategy = strategies.get(strategyKey);
-        if (strategy != null) {
-            strategy.sortCylinders(testCylinders);
-            
-            // 尝试装载
-            List<Cylinder> placedCylinders = new ArrayList<>();
-            double totalValue = 0;
-            
-            for (Cylinder cylinder : testCylinders) {
-                cylinder.setColor(generateRandomColor());
-                boolean placed = findValidPosition(cylinder, container, placedCylinders, strategyKey);
-                
-                if (placed) {
-                    placedCylinders.add(cylinder);
-                    totalValue += cylinder.getValue();
-                } else {
-                    cylinder.setX(-cylinder.getRadius());
-                    cylinder.setY(-cylinder.getRadius());
-                    cylinder.setZ(-cylinder.getHeight());
-                }
+    /**
+     * 在已有方案的基础上追加圆柱体：已有圆柱体保持原位置，只为新增的圆柱体寻找剩余空间，
+     * 计算量与新增圆柱体的数量相当，不会重新排序和放置整个清单
+     * @param plan 已有方案，z坐标为负数的圆柱体视为未放置，保持不变
+     * @param additions 新增的圆柱体，按策略排序后依次放置
+     * @param container 容器
+     * @param strategyKey 策略标识
+     * @param progress 进度与取消控制，进度只统计新增的圆柱体
+     * @return 合并后的圆柱体列表：已有圆柱体在前，新增圆柱体在后
+     * @throws IllegalArgumentException 已有方案中的圆柱体超出容器或相互重叠
+     * @throws java.util.concurrent.CancellationException 计算被取消
+     */
+    public List<Cylinder> addToPlan(List<Cylinder> plan, List<Cylinder> additions, Container container,
+                                    String strategyKey, LoadingProgress progress) {
+        LoadingStrategy strategy = strategies.getOrDefault(strategyKey, strategies.get("volume"));
+        String metricKey = strategies.containsKey(strategyKey) ? strategyKey : "volume";
+        long startTime = System.nanoTime();
+        progress.startClock();
+        
+        // 新增圆柱体分配颜色，未指定编号时接在已有编号之后
+        int nextId = plan.stream().mapToInt(Cylinder::getId).max().orElse(0) + 1;
+        for (Cylinder cylinder : additions) {
+            cylinder.setColor(generateRandomColor());
+            if (cylinder.getId() <= 0) {
+                cylinder.setId(nextId++);
             }
-            
-            // 如果总价值更高，更新最佳方案
-            if (totalValue > bestTotalValue) {
-                bestTotalValue = totalValue;
-                bestPlacement.clear();
-                bestPlacement.addAll(placedCylinders);
+        }
+        sortCylinders(strategy, additions);
+        
+        List<Cylinder> cylinders = new ArrayList<>(plan.size() + additions.size());
+        cylinders.addAll(plan);
+        cylinders.addAll(additions);
+        
+        // 按已有方案直接放置，只更新空间索引和候选位置，不做搜索
+        PlacementKernel kernel = new PlacementKernel(container, cylinders);
+        for (int item = 0; item < plan.size(); item++) {
+            Cylinder cylinder = plan.get(item);
+            if (cylinder.getZ() < 0) {
+                continue;
+            }
+            if (!kernel.fits(item, cylinder.getX(), cylinder.getY(), cylinder.getZ())) {
+                throw new IllegalArgumentException("已有方案中编号为" + cylinder.getId() + "的圆柱体超出容器或与其他圆柱体重叠");
+            }
+            kernel.setPosition(item, cylinder.getX(), cylinder.getY(), cylinder.getZ());
+            kernel.place(item);
+        }
+        
+        // 只为新增的圆柱体寻找位置
+        int[] order = new int[additions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = plan.size() + i;
+        }
+        progress.start(order.length);
+        long firstPassStart = System.nanoTime();
+        IntList unplaced = placeInOrder(kernel, order, strategyKey, progress);
+        metrics.recordPhase(LoadingMetrics.PHASE_FIRST_PASS, metricKey, firstPassStart);
+        
+        progress.addTotal(unplaced.size());
+        long refinedStart = System.nanoTime();
+        for (int i = 0; i < unplaced.size(); i++) {
+            if (!progress.checkDeadline()) {
+                tryRefinedPlacement(unplaced.get(i), kernel, strategyKey, progress);
             }
+            progress.itemProcessed();
         }
+        metrics.recordPhase(LoadingMetrics.PHASE_REFINED, metricKey, refinedStart);
+        
+        kernel.writeBack(cylinders);
+        finish(cylinders, strategy, metricKey, kernel, progress, startTime);
+        return cylinders;
     }
     
-    // 尝试指定顺序的装载方案
-    private void tryExplicitOrder(List<Cylinder> originalCylinders, Container container, 
-                               List<Cylinder> orderedCylinders, List<Cylinder> bestPlacement, double bestTotalValue) {
-        // 复制圆柱体列表
-        List<Cylinder> testCylinders = new ArrayList<>();
-        Map<Integer, Cylinder> idMap = new HashMap<>();
-        
-        for (Cylinder original : originalCylinders) {
-            Cylinder copy = new Cylinder();
-            copy.setId(original.getId());
-            copy.setRadius(original.getRadius());
-            copy.setHeight(original.getHeight());
-            copy.setValue(original.getValue());
-            testCylinders.add(copy);
-            idMap.put(copy.getId(), copy);
-        }
-        
-        // 按指定顺序排序
-        List<Cylinder> sortedCylinders = new ArrayList<>();
-        for (Cylinder ordered : orderedCylinders) {
-            Cylinder copy = idMap.get(ordered.getId());
-            if (copy != null) {
-                sortedCylinders.add(copy);
-            }
+    // 记录总耗时、探测统计、未放置数量和时间预算用完的次数
+    private void finish(List<Cylinder> cylinders, LoadingStrategy strategy, String metricKey,
+                        PlacementKernel kernel, LoadingProgress progress, long startTime) {
+        metrics.recordStats(metricKey, kernel.getStats());
+        metrics.recordPhase(LoadingMetrics.PHASE_TOTAL, metricKey, startTime);
+        
+        int unplacedCount = kernel.size() - kernel.getPlacedCount();
+        metrics.recordUnplaced(metricKey, unplacedCount);
+        if (progress.isTimeLimited()) {
+            metrics.recordTimeLimited(metricKey);
+            log.info("使用{}策略的装载计算达到时间预算，返回已得到的最佳方案", strategy.getStrategyName());
         }
         
-        // 尝试装载
-        List<Cylinder> placedCylinders = new ArrayList<>();
-        double totalValue = 0;
+        // 如果仍有未能放置的圆柱体，记录警告（但不抛出异常，让用户看到部分装箱结果）
+        if (unplacedCount > 0) {
+            log.warn("使用{}策略，有{}个圆柱体无法放入容器中", strategy.getStrategyName(), unplacedCount);
+        }
+        log.debug("装载完成：strategy={} total={} placed={} elapsedMs={}", metricKey, cylinders.size(),
+                kernel.getPlacedCount(), (System.nanoTime() - startTime) / 1_000_000);
+    }
+    
+    // 以各策略的排序结果为起点并行搜索装载顺序，请求指定了时间预算时最多使用剩余时间的一半
+    private int[] searchOrder(List<Cylinder> cylinders, ItemTypes types, Container container, String strategyKey,
+                              LoadingProgress progress) {
+        List<int[]> seeds = new ArrayList<>();
+        seeds.add(identityOrder(cylinders.size()));
+        for (String seedKey : new String[]{"quantity", "value", "valuemax", "id"}) {
+            seeds.add(sortedOrder(strategies.get(seedKey), cylinders, types));
+        }
         
-        for (Cylinder cylinder : sortedCylinders) {
-            cylinder.setColor(generateRandomColor());
-            boolean placed = findValidPosition(cylinder, container, placedCylinders, "valuemax");
-            
-            if (placed) {
-                placedCylinders.add(cylinder);
-                totalValue += cylinder.getValue();
-            } else {
-                cylinder.setX(-cylinder.getRadius());
-                cylinder.setY(-cylinder.getRadius());
-                cylinder.setZ(-cylinder.getHeight());
+        long timeBudgetNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(orderSearchTimeMillis),
+                progress.remainingNanos() / 2);
+        int islands = Runtime.getRuntime().availableProcessors();
+        OrderSearch search = new OrderSearch(container, cylinders, types,
+                (item, kernel) -> findValidPosition(item, kernel, strategyKey));
+        int[] order = search.search(seeds, islands, orderSearchMaxIterations, timeBudgetNanos,
+                portfolioExecutor, progress);
+        metrics.recordDecodes(search.getDecodes());
+        log.debug("装载顺序搜索完成：decodes={}", search.getDecodes());
+        return order;
+    }
+    
+    // 构建各层并叠放到放置内核中，返回没有叠放的圆柱体编号（保持原顺序）
+    private int[] stackLayers(PlacementKernel kernel, List<Cylinder> cylinders, Container container, int[] order,
+                              String strategyKey, LoadingProgress progress) {
+        List<LayerPacker.Layer> layers = layerPacker.build(container, cylinders, order,
+                (item, layerKernel) -> findValidPosition(item, layerKernel, strategyKey), strategyKey,
+                portfolioExecutor, progress);
+        int stacked = LayerPacker.stack(kernel, layers);
+        log.debug("分层装载：构建{}层，叠放{}层，放入{}个圆柱体", layers.size(), stacked, kernel.getPlacedCount());
+        
+        int[] remaining = new int[order.length - kernel.getPlacedCount()];
+        int count = 0;
+        for (int item : order) {
+            if (!kernel.isPlaced(item)) {
+                remaining[count++] = item;
             }
         }
+        return remaining;
+    }
+    
+    // 按替代策略排序得到的装载方案，搜索顺序也使用该策略
+    private PortfolioPass alternativeStrategyPass(List<Cylinder> cylinders, ItemTypes types, String strategyKey) {
+        return new PortfolioPass(strategyKey, strategyKey, sortedOrder(strategies.get(strategyKey), cylinders, types));
+    }
+    
+    // 在线程池中并行计算各方案，返回总价值最高的方案
+    private PlacementKernel.Snapshot runPortfolio(List<Cylinder> cylinders, ItemTypes types, Container container,
+                                                  List<PortfolioPass> portfolio, LoadingProgress progress) {
+        List<Callable<PlacementKernel.Snapshot>> tasks = new ArrayList<>();
+        for (PortfolioPass pass : portfolio) {
+            // 每个方案使用独立的放置内核，互不影响
+            tasks.add(() -> {
+                long passStart = System.nanoTime();
+                PlacementKernel kernel = new PlacementKernel(container, cylinders);
+                placeInOrder(kernel, pass.order, pass.searchKey, progress);
+                metrics.recordPortfolioPass(pass.name, passStart);
+                metrics.recordStats("valuemax", kernel.getStats());
+                return kernel.snapshot();
+            });
+        }
         
-        // 如果总价值更高，更新最佳方案
-        if (totalValue > bestTotalValue) {
-            bestTotalValue = totalValue;
-            bestPlacement.clear();
-            bestPlacement.addAll(placedCylinders);
+        List<Future<PlacementKernel.Snapshot>> results;
+        try {
+            results = portfolioExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            // 等待期间被中断时通知各方案尽快停止
+            progress.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("装载计算被中断");
         }
+        
+        // 所有方案完成后统一比较，总价值相同时保留排在前面的方案
+        PlacementKernel.Snapshot bestPlacement = null;
+        for (Future<PlacementKernel.Snapshot> result : results) {
+            PlacementKernel.Snapshot placement = awaitResult(result);
+            if (bestPlacement == null || placement.getTotalValue() > bestPlacement.getTotalValue()) {
+                bestPlacement = placement;
+            }
+        }
+        return bestPlacement;
     }
     
-    // 恢复最佳放置方案到原始圆柱体列表
-    private void restoreBestPlacement(List<Cylinder> originalCylinders, List<Cylinder> bestPlacement) {
-        // 创建最佳放置的ID到位置映射
-        Map<Integer, Cylinder> bestPositions = new HashMap<>();
-        for (Cylinder placed : bestPlacement) {
-            bestPositions.put(placed.getId(), placed);
-        }
-        
-        // 应用最佳位置到原始圆柱体
-        for (Cylinder original : originalCylinders) {
-            if (bestPositions.containsKey(original.getId())) {
-                Cylinder bestPos = bestPositions.get(original.getId());
-                original.setX(bestPos.getX());
-                original.setY(bestPos.getY());
-                original.setZ(bestPos.getZ());
-            } else {
-                // 未放置的圆柱体
-                original.setX(-original.getRadius());
-                original.setY(-original.getRadius());
-                original.setZ(-original.getHeight());
+    private static <T> T awaitResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("装载计算被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
+            throw new IllegalStateException("装载方案计算失败", cause);
+        }
+    }
+    
+    // 原始顺序：第i个放置的就是编号为i的圆柱体
+    private static int[] identityOrder(int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+    
+    // 按策略排序圆柱体列表本身
+    private static void sortCylinders(LoadingStrategy strategy, List<Cylinder> cylinders) {
+        int[] order = sortedOrder(strategy, cylinders, ItemTypes.of(cylinders));
+        List<Cylinder> original = new ArrayList<>(cylinders);
+        for (int i = 0; i < order.length; i++) {
+            cylinders.set(i, original.get(order[i]));
+        }
+    }
+    
+    // 按策略排序后的圆柱体编号顺序：排序只取决于规格时，只对每种规格的第一个圆柱体排序，
+    // 再按规格展开，排序的耗时与规格数量而不是圆柱体数量相当
+    private static int[] sortedOrder(LoadingStrategy strategy, List<Cylinder> cylinders, ItemTypes types) {
+        if (!strategy.sortsBySpecification()) {
+            List<Cylinder> sortedCylinders = new ArrayList<>(cylinders);
+            strategy.sortCylinders(sortedCylinders);
+            return orderOf(cylinders, sortedCylinders);
+        }
+        List<Cylinder> representatives = new ArrayList<>(types.typeCount());
+        for (int type = 0; type < types.typeCount(); type++) {
+            representatives.add(cylinders.get(types.item(type, 0)));
+        }
+        List<Cylinder> sortedRepresentatives = new ArrayList<>(representatives);
+        strategy.sortCylinders(sortedRepresentatives);
+        return types.expand(orderOf(representatives, sortedRepresentatives));
+    }
+    
+    // 把排好序的圆柱体列表转换为内核中的编号顺序
+    private static int[] orderOf(List<Cylinder> originalCylinders, List<Cylinder> orderedCylinders) {
+        Map<Cylinder, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < originalCylinders.size(); i++) {
+            indexes.put(originalCylinders.get(i), i);
+        }
+        int[] order = new int[orderedCylinders.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = indexes.get(orderedCylinders.get(i));
         }
+        return order;
     }
     
     // 使用更精细的搜索策略尝试放置 - 优化版本
-    private void tryRefinedPlacement(Cylinder cylinder, Container container, List<Cylinder> placedCylinders, String strategyKey) {
+    private void tryRefinedPlacement(int item, PlacementKernel kernel, String strategyKey, LoadingProgress progress) {
+        double radius = kernel.radius(item);
+        double height = kernel.height(item);
+        
+        // 剩余体积不够，或相同规格已经搜索过整个网格时直接标记为无法放置；
+        // 网格间距、起点和高度步长随半径和高度变化，更大的规格搜索的是另一组位置，不能按支配关系跳过；
+        // 同一规格的网格不随方案变化，放置只会让网格点更难放下，失败记录只在移走圆柱体后失效
+        FailureMemo failures = kernel.getGridFailures();
+        if (kernel.volume(item) > kernel.getFreeVolume()
+                || failures.isDominated(radius, height, kernel.getRemovals())) {
+            kernel.getStats().searchSkipped();
+            kernel.markUnplaced(item);
+            return;
+        }
+        
         // 针对数量优先策略使用更密集的网格
         double gridStepFactor = "quantity".equals(strategyKey) ? 80.0 : 50.0;
-        double gridStep = Math.min(container.getLength(), container.getWidth()) / gridStepFactor;
-        gridStep = Math.max(0.05, Math.min(gridStep, cylinder.getRadius() / 2)); // 确保网格精度不会太小
-        
-        // 创建网格点列表
-        List<GridPoint3D> gridPoints = new ArrayList<>();
-        
-        // 生成三维空间中的所有可能位置
-        double zStep = Math.min(cylinder.getHeight() / 2, 0.5); // 高度方向的步长
-        for (double z = 0; z <= container.getHeight() - cylinder.getHeight(); z += zStep) {
-            for (double x = cylinder.getRadius(); x <= container.getLength() - cylinder.getRadius(); x += gridStep) {
-                for (double y = cylinder.getRadius(); y <= container.getWidth() - cylinder.getRadius(); y += gridStep) {
-                    gridPoints.add(new GridPoint3D(x, y, z));
-                }
-            }
+        double gridStep = Math.min(kernel.getLength(), kernel.getWidth()) / gridStepFactor;
+        gridStep = Math.max(0.05, Math.min(gridStep, radius / 2)); // 确保网格精度不会太小
+        
+        // 平面网格点按策略排序：数量优先靠近原点，体积优先靠近边缘，其他策略按网格顺序
+        // 排好序的模板按容器尺寸、策略、半径和网格间距缓存，重复的规格直接复用
+        GridTemplate template = gridTemplates.get(kernel.getLength(), kernel.getWidth(), radius, gridStep, strategyKey);
+        
+        // 在三维空间中搜索，优先底层
+        double zStep = Math.min(height / 2, 0.5); // 高度方向的步长
+        int levelCount = 0;
+        for (double z = 0; z <= kernel.getContainerHeight() - height; z += zStep) {
+            levelCount++;
+        }
+        double[] levels = new double[levelCount];
+        int level = 0;
+        for (double z = 0; z <= kernel.getContainerHeight() - height; z += zStep) {
+            levels[level++] = z;
         }
         
-        // 根据策略调整网格点排序
-        if ("quantity".equals(strategyKey)) {
-            // 数量优先：优先底层且靠近原点的位置
-            gridPoints.sort(Comparator
-                .comparingDouble((GridPoint3D p) -> p.z) // 先按Z排序
-                .thenComparingDouble(p -> Math.sqrt(p.x * p.x + p.y * p.y))); // 然后按到原点的距离
-        } else if ("volume".equals(strategyKey)) {
-            // 体积优先：优先底层且靠边缘的位置
-            gridPoints.sort(Comparator
-                .comparingDouble((GridPoint3D p) -> p.z) // 先按Z排序
-                .thenComparingDouble(p -> -Math.sqrt(
-                    (container.getLength() - p.x) * (container.getLength() - p.x) + 
-                    (container.getWidth() - p.y) * (container.getWidth() - p.y)))); // 然后按到边缘的距离（倒序）
+        // 候选位置依次为：每个高度层 × 排好序的平面网格点
+        // 每个网格点先查该高度层的占用栅格，落在已被完全覆盖的格子里的直接排除，其余再做精确检查
+        int templateSize = template.size();
+        int candidateCount = levelCount * templateSize;
+        OccupancyRaster occupancy = kernel.getOccupancy();
+        occupancy.ensureCapacity(levelCount);
+        OccupancyRaster.Layer[] layers = new OccupancyRaster.Layer[levelCount];
+        int found = -1;
+        long probed = candidateCount;
+        long rejected = 0;
+        if (parallelProbeEnabled && candidateCount >= PARALLEL_PROBE_THRESHOLD) {
+            // 并行探测前生成全部高度层，探测过程中只读
+            for (level = 0; level < levelCount; level++) {
+                layers[level] = occupancy.layer(levels[level]);
+            }
+            LongAdder rejections = new LongAdder();
+            // 各线程实际评估的候选位置数量：找到可行位置或时间预算用完后，剩余的候选位置不计入
+            LongAdder evaluated = new LongAdder();
+            // 并行探测，结果与顺序探测相同：取排在最前面的可行位置
+            found = parallelProbe.firstFeasible(candidateCount, index -> {
+                if ((index & CANCEL_CHECK_MASK) == 0) {
+                    progress.checkCancelled();
+                    progress.checkDeadline();
+                }
+                // 时间预算用完后剩余的候选位置直接跳过
+                if (progress.isTimeLimited()) {
+                    return false;
+                }
+                evaluated.increment();
+                double px = template.x(index % templateSize);
+                double py = template.y(index % templateSize);
+                if (layers[index / templateSize].isBlocked(px, py, radius)) {
+                    rejections.increment();
+                    return false;
+                }
+                return kernel.fits(item, px, py, levels[index / templateSize]);
+            });
+            rejected = rejections.sum();
+            probed = evaluated.sum();
         } else {
-            // 其他策略：优先底层
-            gridPoints.sort(Comparator.comparingDouble(p -> p.z));
+            for (int index = 0; index < candidateCount; index++) {
+                // 每隔一批候选位置检查一次是否已被取消，时间预算用完时放弃该圆柱体
+                if ((index & CANCEL_CHECK_MASK) == 0) {
+                    progress.checkCancelled();
+                    if (progress.checkDeadline()) {
+                        probed = index;
+                        break;
+                    }
+                }
+                // 检查是否在容器内且不与其他圆柱体重叠，高度层在第一次用到时生成
+                int levelIndex = index / templateSize;
+                if (layers[levelIndex] == null) {
+                    layers[levelIndex] = occupancy.layer(levels[levelIndex]);
+                }
+                double px = template.x(index % templateSize);
+                double py = template.y(index % templateSize);
+                if (layers[levelIndex].isBlocked(px, py, radius)) {
+                    rejected++;
+                    continue;
+                }
+                if (kernel.fits(item, px, py, levels[levelIndex])) {
+                    found = index;
+                    probed = index + 1;
+                    break;
+                }
+            }
         }
         
-        // 遍历排序后的网格点
-        for (GridPoint3D point : gridPoints) {
-            cylinder.setX(point.x);
-            cylinder.setY(point.y);
-            cylinder.setZ(point.z);
-            
-            // 检查是否在容器内
-            if (checkContainerBounds(cylinder, container) && !checkOverlap(cylinder, placedCylinders)) {
-                // 找到有效位置，更新列表
-                placedCylinders.add(cylinder);
-                return;
-            }
+        kernel.getStats().gridProbed(probed, rejected);
+        
+        if (found >= 0) {
+            // 找到有效位置，更新放置状态
+            kernel.setPosition(item, template.x(found % templateSize), template.y(found % templateSize),
+                    levels[found / templateSize]);
+            kernel.place(item);
+            return;
         }
         
-        // 如果仍然找不到位置，则标记为无法放置
-        cylinder.setX(-cylinder.getRadius());
-        cylinder.setY(-cylinder.getRadius());
-        cylinder.setZ(-cylinder.getHeight());
+        // 如果仍然找不到位置，则标记为无法放置；因时间预算用完而未搜索完的不记录
+        if (!progress.isTimeLimited()) {
+            failures.recordFailure(radius, height, kernel.getRemovals());
+        }
+        kernel.markUnplaced(item);
     }
-    
-    // 辅助类：二维网格点
-    private static class GridPoint {
-        double x, y;
+
+    // 价值最大化策略中的一个候选方案：装载顺序及位置搜索顺序
+    private static final class PortfolioPass {
+        private final String name;
+        private final String searchKey;
+        private final int[] order;
         
-        GridPoint(double x, double y) {
-            this.x = x;
-            this.y = y;
+        PortfolioPass(String name, String searchKey, int[] order) {
+            this.name = name;
+            this.searchKey = searchKey;
+            this.order = order;
         }
     }
     
-    // 辅助类：三维网格点
-    private static class GridPoint3D {
-        double x, y, z;
-        
-        GridPoint3D(double x, double y, double z) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-        }
+    // 应用关闭时释放线程池
+    @PreDestroy
+    public void shutdown() {
+        portfolioExecutor.shutdownNow();
+        parallelProbe.shutdown();
     }
 
     // 保留原方法，默认使用体积优先策略，保持向后兼容性
     public void calculateLoading(List<Cylinder> cylinders, Container container) {
         calculateLoading(cylinders, container, "volume");
     }
-} 
\ No newline at end of file
+}
@@ -15,6 +15,15 @@ public interface LoadingStrategy {
      */
     void sortCylinders(List<Cylinder> cylinders);
     
+    /**
+     * 排序是否只取决于圆柱体的半径、高度和价值
+     * 是时只对每种规格的一个圆柱体排序，同一规格的圆柱体按原顺序连续排列
+     * @return 默认为 true
+     */
+    default boolean sortsBySpecification() {
+        return true;
+    }
+    
     /**
      * 获取策略名称
      * @return 策略名称
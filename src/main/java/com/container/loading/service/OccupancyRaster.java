@@ -0,0 +1,218 @@
+package com.container.loading.service;
+
+import java.util.Arrays;
+
+/**
+ * 分层占用栅格
+ * 按容器和圆柱体的尺度把容器底面划分为与精细网格间距相当的格子，每个高度层用 long[] 位图记录
+ * 被已放置圆柱体完全覆盖的格子（只考虑Z区间包含该高度的圆柱体）。
+ * 精细网格搜索在浮点重叠检查之前先查位图：候选圆柱体内部的采样点落在完全覆盖的格子中时，
+ * 必然与覆盖它的圆柱体重叠，直接排除；其余网格点再做精确检查，结果与不使用栅格时相同。
+ * 高度层在首次查询时由全部已放置圆柱体生成，之后放置圆柱体时增量更新；
+ * 移走圆柱体后与其Z区间相交的层作废，下次需要时重新生成。
+ * 保留的层数随精细网格搜索探测的高度层数增加，超过后按最近最少使用淘汰。
+ */
+class OccupancyRaster {
+
+    // 容器较短边上的格子数量，与默认的精细网格间距相同
+    private static final int CELLS_ACROSS = 50;
+    // 每层格子数量上限，容器很大时加大格子边长
+    private static final int MAX_CELLS = 1 << 20;
+    // 初始保留的高度层数量
+    private static final int INITIAL_LAYERS = 16;
+    // 判断格子被完全覆盖时向内收缩的距离，与重叠判断的浮点容差保持足够余量
+    private static final double MARGIN = 2 * SpatialIndex.TOLERANCE;
+
+    private final PlacementKernel kernel;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    // 每行占用的 long 数量
+    private final int words;
+    // 已生成的层，层数很少，按高度顺序查找，不需要装箱的键
+    private Layer[] layers = new Layer[INITIAL_LAYERS];
+    private int layerCount;
+    // 访问计数，用于淘汰最近最少使用的层
+    private long clock;
+
+    OccupancyRaster(PlacementKernel kernel) {
+        this.kernel = kernel;
+        double length = kernel.getLength();
+        double width = kernel.getWidth();
+        // 格子边长取较短边的1/50和最小半径的一半中较小的值，与精细网格一样由容器和圆柱体的尺度决定
+        double size = Math.min(length, width) / CELLS_ACROSS;
+        for (int i = 0; i < kernel.size(); i++) {
+            if (kernel.radius(i) > 0) {
+                size = Math.min(size, kernel.radius(i) / 2);
+            }
+        }
+        if (!(size > 0)) {
+            // 底面退化时只用一个格子
+            size = Math.max(1, Math.max(length, width));
+        }
+        while (Math.ceil(length / size) * Math.ceil(width / size) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.cellSize = size;
+        this.cols = Math.max(1, (int) Math.ceil(length / size));
+        this.rows = Math.max(1, (int) Math.ceil(width / size));
+        this.words = (cols + 63) >>> 6;
+    }
+
+    /**
+     * 获取高度 z 处的占用层，不存在时由已放置的圆柱体生成
+     * @param z 高度
+     * @return 占用层，在下次放置或移走圆柱体之前只读，可被多个线程同时查询
+     */
+    Layer layer(double z) {
+        for (int i = 0; i < layerCount; i++) {
+            if (layers[i].z == z) {
+                layers[i].lastUsed = ++clock;
+                return layers[i];
+            }
+        }
+        Layer layer = new Layer(z);
+        for (int i = 0; i < kernel.getPlacedCount(); i++) {
+            int item = kernel.placedItem(i);
+            if (covers(item, z)) {
+                layer.fill(kernel.x(item), kernel.y(item), kernel.radius(item));
+            }
+        }
+        layer.lastUsed = ++clock;
+        if (layerCount < layers.length) {
+            layers[layerCount++] = layer;
+        } else {
+            layers[leastRecentlyUsed()] = layer;
+        }
+        return layer;
+    }
+
+    /**
+     * 保证至少能同时保留 count 个高度层，精细网格搜索按探测的高度层数调用，避免逐层淘汰
+     * @param count 高度层数量
+     */
+    void ensureCapacity(int count) {
+        if (count > layers.length) {
+            layers = Arrays.copyOf(layers, Math.max(count, layers.length * 2));
+        }
+    }
+
+    private int leastRecentlyUsed() {
+        int eldest = 0;
+        for (int i = 1; i < layerCount; i++) {
+            if (layers[i].lastUsed < layers[eldest].lastUsed) {
+                eldest = i;
+            }
+        }
+        return eldest;
+    }
+
+    /**
+     * 圆柱体放置后更新Z区间包含的各层
+     * @param item 圆柱体编号
+     */
+    void onPlaced(int item) {
+        for (int i = 0; i < layerCount; i++) {
+            if (covers(item, layers[i].z)) {
+                layers[i].fill(kernel.x(item), kernel.y(item), kernel.radius(item));
+            }
+        }
+    }
+
+    /**
+     * 圆柱体移走前调用：Z区间包含的层作废
+     * @param item 圆柱体编号
+     */
+    void onRemoved(int item) {
+        int kept = 0;
+        for (int i = 0; i < layerCount; i++) {
+            if (!covers(item, layers[i].z)) {
+                layers[kept++] = layers[i];
+            }
+        }
+        for (int i = kept; i < layerCount; i++) {
+            layers[i] = null;
+        }
+        layerCount = kept;
+    }
+
+    // 圆柱体的Z区间是否包含高度 z；放在 z 处的任何圆柱体都与它在高度方向上相交
+    private boolean covers(int item, double z) {
+        double zBottom = kernel.z(item);
+        return zBottom <= z && z < zBottom + kernel.height(item);
+    }
+
+    /**
+     * 一个高度层的占用位图：第 row 行第 col 列的格子对应 bits[row * words + col / 64] 的第 col % 64 位
+     */
+    final class Layer {
+        private final double z;
+        private final long[] bits = new long[rows * words];
+        private long lastUsed;
+
+        private Layer(double z) {
+            this.z = z;
+        }
+
+        /**
+         * 检查放在(x, y)处、半径为 radius 的圆柱体是否必然与已放置的圆柱体重叠：
+         * 圆心以及四个方向上距圆心半个半径的采样点中任一个落在完全覆盖的格子里即为重叠
+         * @return 必然重叠时返回 true；返回 false 时仍需精确检查
+         */
+        boolean isBlocked(double x, double y, double radius) {
+            double offset = radius / 2;
+            return isOccupied(x, y) || isOccupied(x - offset, y) || isOccupied(x + offset, y)
+                    || isOccupied(x, y - offset) || isOccupied(x, y + offset);
+        }
+
+        private boolean isOccupied(double x, double y) {
+            int col = (int) Math.floor(x / cellSize);
+            int row = (int) Math.floor(y / cellSize);
+            if (col < 0 || col >= cols || row < 0 || row >= rows) {
+                return false;
+            }
+            return (bits[row * words + (col >>> 6)] & (1L << col)) != 0;
+        }
+
+        // 标记被圆心为(cx, cy)、半径为 radius 的圆完全覆盖的格子
+        private void fill(double cx, double cy, double radius) {
+            double inner = radius - MARGIN;
+            if (inner <= 0) {
+                return;
+            }
+            int rowFrom = Math.max(0, (int) Math.floor((cy - inner) / cellSize));
+            int rowTo = Math.min(rows - 1, (int) Math.floor((cy + inner) / cellSize));
+            for (int row = rowFrom; row <= rowTo; row++) {
+                // 格子的四个角都在圆内时才算完全覆盖，按该行离圆心最远的边计算可用的X范围
+                double dy = Math.max(Math.abs(row * cellSize - cy), Math.abs((row + 1) * cellSize - cy));
+                if (dy >= inner) {
+                    continue;
+                }
+                double half = Math.sqrt(inner * inner - dy * dy);
+                int colFrom = Math.max(0, (int) Math.ceil((cx - half) / cellSize));
+                int colTo = Math.min(cols - 1, (int) Math.floor((cx + half) / cellSize) - 1);
+                setRange(row * words, colFrom, colTo);
+            }
+        }
+
+        // 设置一行中第 from 到第 to 列（含）的位
+        private void setRange(int rowOffset, int from, int to) {
+            if (from > to) {
+                return;
+            }
+            int fromWord = from >>> 6;
+            int toWord = to >>> 6;
+            long fromMask = -1L << from;
+            long toMask = -1L >>> (63 - (to & 63));
+            if (fromWord == toWord) {
+                bits[rowOffset + fromWord] |= fromMask & toMask;
+                return;
+            }
+            bits[rowOffset + fromWord] |= fromMask;
+            for (int word = fromWord + 1; word < toWord; word++) {
+                bits[rowOffset + word] = -1L;
+            }
+            bits[rowOffset + toWord] |= toMask;
+        }
+    }
+}
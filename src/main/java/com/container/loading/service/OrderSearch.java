@@ -0,0 +1,284 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 装载顺序搜索（并行模拟退火）
+ * 候选解是圆柱体的装载顺序，按顺序用候选位置引擎依次放置（解码）得到装入的总体积。
+ * 每个岛在线程池中独立退火，起点轮流取各策略的排序结果；每隔固定迭代次数，
+ * 各岛发布自己的最佳顺序，落后于相邻岛时改用相邻岛的最佳顺序继续搜索（迁移）。
+ * 是否接受新顺序的阈值在解码前随机确定，解码过程中已装入体积加上剩余体积达不到阈值时立即停止，
+ * 被拒绝的顺序通常只需解码一部分。
+ * 每个岛复用一个放置内核：新顺序与上一次解码的顺序的相同前缀不再重新放置，
+ * 只撤销第一个不同位置之后的放置，从该位置继续解码
+ */
+final class OrderSearch {
+
+    // 每隔多少次迭代进行一次迁移
+    private static final int MIGRATION_INTERVAL = 50;
+    // 初始和最终温度，相对于全部圆柱体的总体积
+    private static final double INITIAL_TEMPERATURE = 0.01;
+    private static final double FINAL_TEMPERATURE = 0.0001;
+    // 每隔 CANCEL_CHECK_MASK + 1 次迭代检查一次取消状态
+    private static final int CANCEL_CHECK_MASK = 15;
+    // 随机数种子，同样的输入在单个岛上得到同样的搜索过程
+    private static final long RANDOM_SEED = 20240601L;
+    // 总体积的比较容差，避免累加顺序不同造成的浮点误差拒绝同样好的顺序
+    private static final double FITNESS_EPS = 1e-9;
+
+    /**
+     * 为圆柱体寻找位置，找到时设置为待定位置
+     */
+    interface Placer {
+        boolean findPosition(int item, PlacementKernel kernel);
+    }
+
+    private final Container container;
+    private final List<Cylinder> cylinders;
+    private final Placer placer;
+    private final ItemTypes types;
+    private final double[] volumes;
+    private final double totalVolume;
+    private final AtomicLong decodes = new AtomicLong();
+
+    /**
+     * @param container 容器
+     * @param cylinders 圆柱体列表，装载顺序中的编号即其下标
+     * @param types 圆柱体的规格分组
+     * @param placer 解码时为每个圆柱体寻找位置
+     */
+    OrderSearch(Container container, List<Cylinder> cylinders, ItemTypes types, Placer placer) {
+        this.container = container;
+        this.cylinders = cylinders;
+        this.placer = placer;
+        this.types = types;
+        this.volumes = new double[cylinders.size()];
+        double total = 0;
+        for (int i = 0; i < volumes.length; i++) {
+            Cylinder cylinder = cylinders.get(i);
+            volumes[i] = Math.PI * cylinder.getRadius() * cylinder.getRadius() * cylinder.getHeight();
+            total += volumes[i];
+        }
+        this.totalVolume = total;
+    }
+
+    /**
+     * 搜索装入总体积最大的装载顺序
+     * @param seeds 初始顺序，各岛轮流选用
+     * @param islands 岛的数量
+     * @param maxIterations 所有岛合计的最大迭代次数
+     * @param timeBudgetNanos 搜索时间上限（纳秒）
+     * @param executor 运行各岛的线程池
+     * @param progress 取消控制，时间预算用完时各岛停止搜索
+     * @return 找到的最佳顺序
+     * @throws CancellationException 计算被取消或中断
+     */
+    int[] search(List<int[]> seeds, int islands, int maxIterations, long timeBudgetNanos,
+                 ExecutorService executor, LoadingProgress progress) {
+        AtomicReferenceArray<Solution> published = new AtomicReferenceArray<>(islands);
+        int iterations = Math.max(1, maxIterations / islands);
+        long deadline = System.nanoTime() + timeBudgetNanos;
+
+        List<Callable<Solution>> tasks = new ArrayList<>();
+        for (int island = 0; island < islands; island++) {
+            int index = island;
+            tasks.add(() -> anneal(index, seeds.get(index % seeds.size()), published, iterations, deadline, progress));
+        }
+
+        List<Future<Solution>> results;
+        try {
+            results = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            progress.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("装载计算被中断");
+        }
+
+        Solution best = null;
+        for (Future<Solution> result : results) {
+            Solution solution = awaitResult(result);
+            if (best == null || solution.fitness > best.fitness) {
+                best = solution;
+            }
+        }
+        return best.order;
+    }
+
+    /**
+     * @return 解码次数（包括提前停止的解码）
+     */
+    long getDecodes() {
+        return decodes.get();
+    }
+
+    // 单个岛的退火过程，返回该岛找到的最佳顺序
+    private Solution anneal(int island, int[] seed, AtomicReferenceArray<Solution> published, int iterations,
+                            long deadline, LoadingProgress progress) {
+        Random random = new Random(RANDOM_SEED + island);
+        Decoder decoder = new Decoder();
+        int[] current = seed.clone();
+        int[] candidate = new int[current.length];
+        double currentFitness = decoder.decode(current, Double.NEGATIVE_INFINITY);
+        Solution best = new Solution(current.clone(), currentFitness);
+        published.set(island, best);
+
+        long start = System.nanoTime();
+        long budget = Math.max(1, deadline - start);
+        // 只有一种规格时所有顺序都等价
+        for (int iteration = 0; iteration < iterations && types.typeCount() > 1; iteration++) {
+            if ((iteration & CANCEL_CHECK_MASK) == 0) {
+                progress.checkCancelled();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= budget || progress.checkDeadline()) {
+                break;
+            }
+
+            // 温度随迭代次数或耗时（取较快的一个）按几何级数下降
+            double fraction = Math.max((double) iteration / iterations, (double) elapsed / budget);
+            double temperature = totalVolume * INITIAL_TEMPERATURE
+                    * Math.pow(FINAL_TEMPERATURE / INITIAL_TEMPERATURE, fraction);
+
+            System.arraycopy(current, 0, candidate, 0, current.length);
+            // 交换两个规格相同的圆柱体得到的是等价的顺序，不必解码
+            if (!mutate(candidate, random)) {
+                continue;
+            }
+            // Metropolis 准则：新顺序的总体积不低于阈值时接受
+            double threshold = currentFitness + temperature * Math.log(1 - random.nextDouble());
+            double fitness = decoder.decode(candidate, threshold);
+            if (fitness >= threshold - FITNESS_EPS) {
+                int[] swap = current;
+                current = candidate;
+                candidate = swap;
+                currentFitness = fitness;
+                if (fitness > best.fitness) {
+                    best = new Solution(current.clone(), fitness);
+                    published.set(island, best);
+                }
+            }
+
+            // 迁移：相邻岛的最佳顺序更好时从它继续搜索
+            if (iteration % MIGRATION_INTERVAL == MIGRATION_INTERVAL - 1 && published.length() > 1) {
+                Solution neighbour = published.get((island + 1) % published.length());
+                if (neighbour != null && neighbour.fitness > currentFitness) {
+                    System.arraycopy(neighbour.order, 0, current, 0, current.length);
+                    currentFitness = neighbour.fitness;
+                }
+            }
+        }
+        return best;
+    }
+
+    // 邻域操作：交换两个圆柱体，或把一个圆柱体移到另一个位置；顺序没有实质变化时返回 false
+    private boolean mutate(int[] order, Random random) {
+        int from = random.nextInt(order.length);
+        int to = random.nextInt(order.length - 1);
+        if (to >= from) {
+            to++;
+        }
+        if (random.nextBoolean()) {
+            int item = order[from];
+            if (types.typeOf(item) == types.typeOf(order[to])) {
+                return false;
+            }
+            order[from] = order[to];
+            order[to] = item;
+            return true;
+        }
+        int item = order[from];
+        if (from < to) {
+            System.arraycopy(order, from + 1, order, from, to - from);
+        } else {
+            System.arraycopy(order, to, order, to + 1, from - to);
+        }
+        order[to] = item;
+        return true;
+    }
+
+    private static <T> T awaitResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("装载计算被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("装载顺序搜索失败", cause);
+        }
+    }
+
+    // 单个岛的解码器：复用放置内核，从与上一次解码的顺序第一个不同的位置开始重新解码
+    private final class Decoder {
+        private final PlacementKernel kernel = new PlacementKernel(container, cylinders);
+        // 上一次解码的顺序，只有前 decoded 个有效
+        private final int[] order = new int[volumes.length];
+        private int decoded;
+        // 处理完前 i 个圆柱体时已放置的数量、已装入体积和剩余体积
+        private final int[] placedCounts = new int[volumes.length + 1];
+        private final double[] placedVolumes = new double[volumes.length + 1];
+        private final double[] remainingVolumes = new double[volumes.length + 1];
+
+        Decoder() {
+            kernel.enableTruncate();
+            remainingVolumes[0] = totalVolume;
+        }
+
+        // 按顺序放置圆柱体，返回装入的总体积；确定达不到阈值时提前停止并返回负无穷
+        double decode(int[] candidate, double threshold) {
+            decodes.incrementAndGet();
+            int start = 0;
+            while (start < decoded && order[start] == candidate[start]) {
+                start++;
+            }
+            // 撤销前缀之后的放置，已装入和剩余体积按前缀的累加结果继续，与从头解码完全相同
+            kernel.truncate(placedCounts[start]);
+            double placed = placedVolumes[start];
+            double remaining = remainingVolumes[start];
+            for (int i = start; i < candidate.length; i++) {
+                int item = candidate[i];
+                order[i] = item;
+                if (placer.findPosition(item, kernel)) {
+                    kernel.place(item);
+                    placed += volumes[item];
+                }
+                remaining -= volumes[item];
+                placedCounts[i + 1] = kernel.getPlacedCount();
+                placedVolumes[i + 1] = placed;
+                remainingVolumes[i + 1] = remaining;
+                if (placed + remaining < threshold - FITNESS_EPS) {
+                    decoded = i + 1;
+                    return Double.NEGATIVE_INFINITY;
+                }
+            }
+            decoded = candidate.length;
+            return placed;
+        }
+    }
+
+    // 一个装载顺序及其装入的总体积
+    private static final class Solution {
+        private final int[] order;
+        private final double fitness;
+
+        Solution(int[] order, double fitness) {
+            this.order = order;
+            this.fitness = fitness;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.container.loading.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * 并行位置探测
+ * 把排好序的候选位置按固定大小分块，轮流分配给各个线程并行检查，
+ * 结果始终是下标最小的可行位置，与顺序探测完全一致：
+ * 某个线程找到可行位置后，其他线程一旦扫描到更大的下标就立即停止。
+ * 探测函数只读取放置状态，并行调用是安全的。
+ */
+final class ParallelProbe {
+
+    // 每个分块包含的候选位置数量
+    private static final int BLOCK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+
+    /**
+     * @param parallelism 并行线程数
+     */
+    ParallelProbe(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    /**
+     * 查找下标最小的可行候选位置
+     *
+     * @param size 候选位置数量
+     * @param feasible 判断某个下标的候选位置是否可行
+     * @return 最小的可行下标，没有可行位置时返回-1
+     */
+    int firstFeasible(int size, IntPredicate feasible) {
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int workers = Math.min(parallelism, blocks);
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            int firstBlock = worker;
+            tasks.add(pool.submit(() -> scan(firstBlock, workers, blocks, size, feasible, best)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        int result = best.get();
+        return result == Integer.MAX_VALUE ? -1 : result;
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // 按块轮流扫描：线程依次处理第 firstBlock、firstBlock + stride ... 块
+    private static void scan(int firstBlock, int stride, int blocks, int size,
+                             IntPredicate feasible, AtomicInteger best) {
+        for (int block = firstBlock; block < blocks; block += stride) {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(from + BLOCK_SIZE, size);
+            for (int index = from; index < to; index++) {
+                // 更小下标的可行位置已经找到，后面的结果不再需要
+                if (index >= best.get()) {
+                    return;
+                }
+                if (feasible.test(index)) {
+                    best.accumulateAndGet(index, Math::min);
+                    return;
+                }
+            }
+        }
+    }
+}
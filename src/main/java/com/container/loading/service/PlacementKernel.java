@@ -0,0 +1,416 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+
+import java.util.List;
+
+/**
+ * 放置内核
+ * 单次装载过程中的全部放置状态都以基本类型数组（结构数组）保存：
+ * 半径、高度、价值以及X/Y/Z坐标按圆柱体编号存放，探测候选位置时不创建任何对象，
+ * 只有方案最终确定后才通过 {@link #writeBack(List)} 一次性写回 Cylinder 对象。
+ * 圆柱体编号即其在构造时传入列表中的下标。
+ * 位置搜索的失败按规格的支配关系记录：候选位置随每次放置变化，其失败记录在方案版本改变后失效；
+ * 精细网格搜索的网格点和高度层由半径和高度决定，与方案无关：放置只会让网格点更难放下，
+ * 其失败记录按精确规格保存，只在移走圆柱体后失效。
+ */
+class PlacementKernel {
+
+    private final double length;
+    private final double width;
+    private final double containerHeight;
+
+    private final double[] radius;
+    private final double[] height;
+    private final double[] value;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final boolean[] placed;
+
+    // 已放置圆柱体的编号，按放置顺序排列
+    private final int[] placedOrder;
+    private int placedCount;
+    private double placedValue;
+    private double placedVolume;
+    private final double containerVolume;
+
+    // 地面层和已放置圆柱体的顶面，放置时增量维护
+    private final HeightLevels heightLevels = new HeightLevels();
+
+    // 方案版本，放置或移走圆柱体时递增
+    private long version;
+    // 移走圆柱体的次数
+    private long removals;
+    // 候选位置搜索和精细网格搜索各自的失败记录
+    private final FailureMemo candidateFailures;
+    private final FailureMemo gridFailures;
+
+    private final SpatialIndex placedIndex;
+    private final CandidateEngine candidateEngine;
+    private final OccupancyRaster occupancy;
+    private final LatticePacker.Cursors latticeCursors = new LatticePacker.Cursors();
+    private final PlacementStats stats = new PlacementStats();
+
+    /**
+     * @param container 容器
+     * @param cylinders 本次装载涉及的全部圆柱体
+     */
+    PlacementKernel(Container container, List<Cylinder> cylinders) {
+        this.length = container.getLength();
+        this.width = container.getWidth();
+        this.containerHeight = container.getHeight();
+        this.containerVolume = length * width * containerHeight;
+
+        int count = cylinders.size();
+        radius = new double[count];
+        height = new double[count];
+        value = new double[count];
+        x = new double[count];
+        y = new double[count];
+        z = new double[count];
+        placed = new boolean[count];
+        placedOrder = new int[count];
+
+        double maxRadius = 0;
+        for (int i = 0; i < count; i++) {
+            Cylinder cylinder = cylinders.get(i);
+            radius[i] = cylinder.getRadius();
+            height[i] = cylinder.getHeight();
+            value[i] = cylinder.getValue();
+            maxRadius = Math.max(maxRadius, radius[i]);
+            markUnplaced(i);
+        }
+
+        this.candidateFailures = new FailureMemo();
+        this.gridFailures = new FailureMemo(true);
+        this.placedIndex = new SpatialIndex(container, maxRadius);
+        this.candidateEngine = new CandidateEngine(this);
+        this.occupancy = new OccupancyRaster(this);
+    }
+
+    /**
+     * 检查圆柱体放在(px, py, pz)处时是否在容器内且不与已放置的圆柱体重叠
+     * @param item 圆柱体编号
+     * @return 是否可以放置
+     */
+    boolean fits(int item, double px, double py, double pz) {
+        return fitsWithout(item, px, py, pz, -1);
+    }
+
+    /**
+     * 检查圆柱体放在(px, py, pz)处时是否在容器内且不与 ignored 以外的已放置圆柱体重叠，
+     * 用于评估移走 ignored 后的方案，不修改放置状态
+     * @param item 圆柱体编号
+     * @param ignored 视为已移走的圆柱体编号，-1表示不忽略
+     * @return 是否可以放置
+     */
+    boolean fitsWithout(int item, double px, double py, double pz, int ignored) {
+        double r = radius[item];
+        double h = height[item];
+        // 检查X、Y、Z三个方向的容器边界，水平方向允许与重叠判断相同的浮点容差
+        if (px - r < -SpatialIndex.TOLERANCE || px + r > length + SpatialIndex.TOLERANCE
+                || py - r < -SpatialIndex.TOLERANCE || py + r > width + SpatialIndex.TOLERANCE
+                || pz < 0 || pz + h > containerHeight) {
+            return false;
+        }
+        return !placedIndex.overlaps(px, py, r, pz, pz + h, ignored);
+    }
+
+    /**
+     * 检查圆柱体放在(px, py, pz)处时是否与已放置的圆柱体重叠（不检查容器边界）
+     * @param item 圆柱体编号
+     * @return 是否重叠
+     */
+    boolean overlaps(int item, double px, double py, double pz) {
+        stats.overlapChecked();
+        return placedIndex.overlaps(px, py, radius[item], pz, pz + height[item]);
+    }
+
+    /**
+     * 设置圆柱体的待定位置，尚未计入已放置列表
+     * @param item 圆柱体编号
+     */
+    void setPosition(int item, double px, double py, double pz) {
+        x[item] = px;
+        y[item] = py;
+        z[item] = pz;
+    }
+
+    /**
+     * 将圆柱体按当前设置的位置放置，同步更新空间索引和候选位置引擎
+     * @param item 圆柱体编号
+     */
+    void place(int item) {
+        placed[item] = true;
+        placedOrder[placedCount++] = item;
+        placedValue += value[item];
+        placedVolume += volume(item);
+        version++;
+        placedIndex.insert(item, x[item], y[item], radius[item], z[item], z[item] + height[item]);
+        heightLevels.add(z[item] + height[item]);
+        candidateEngine.onPlaced(item);
+        occupancy.onPlaced(item);
+    }
+
+    /**
+     * 移走已放置的圆柱体，同步更新空间索引和候选位置引擎，并标记为未放置；
+     * 高度层只增不减，移走后原顶面仍作为高度层保留
+     * @param item 圆柱体编号
+     */
+    void remove(int item) {
+        placed[item] = false;
+        // 从后往前查找，撤销最近的放置时只需比较一次
+        int index = placedCount - 1;
+        while (placedOrder[index] != item) {
+            index--;
+        }
+        System.arraycopy(placedOrder, index + 1, placedOrder, index, placedCount - index - 1);
+        placedCount--;
+        placedValue -= value[item];
+        placedVolume -= volume(item);
+        version++;
+        removals++;
+        placedIndex.remove(item, x[item], y[item]);
+        candidateEngine.onRemoved(item);
+        occupancy.onRemoved(item);
+        markUnplaced(item);
+    }
+
+    /**
+     * 允许通过 {@link #truncate(int)} 撤销之后的放置，候选位置引擎开始记录被删掉的候选位置
+     */
+    void enableTruncate() {
+        candidateEngine.enableUndo();
+    }
+
+    /**
+     * 按放置顺序撤销最近放置的圆柱体，只保留最先放置的 count 个并标记其余的为未放置；
+     * 候选集合回退而不作废，高度层、已放置体积和价值按保留的圆柱体重新计算，
+     * 与只放置过这些圆柱体时等价
+     * @param count 保留的圆柱体数量
+     * @throws IllegalStateException 没有调用 {@link #enableTruncate()}
+     */
+    void truncate(int count) {
+        if (count >= placedCount) {
+            return;
+        }
+        while (placedCount > count) {
+            int item = placedOrder[--placedCount];
+            placed[item] = false;
+            placedIndex.remove(item, x[item], y[item]);
+            occupancy.onRemoved(item);
+            markUnplaced(item);
+        }
+        version++;
+        removals++;
+        candidateEngine.truncate(count);
+        heightLevels.clear();
+        placedValue = 0;
+        placedVolume = 0;
+        for (int i = 0; i < placedCount; i++) {
+            int item = placedOrder[i];
+            heightLevels.add(z[item] + height[item]);
+            placedValue += value[item];
+            placedVolume += volume(item);
+        }
+    }
+
+    /**
+     * 标记圆柱体未放置：放在容器外以便识别
+     * @param item 圆柱体编号
+     */
+    void markUnplaced(int item) {
+        x[item] = -radius[item];
+        y[item] = -radius[item];
+        z[item] = -height[item];
+    }
+
+    /**
+     * 保存当前方案的快照
+     * @return 快照
+     */
+    Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(placed.length);
+        snapshot.copyFrom(this);
+        return snapshot;
+    }
+
+    /**
+     * 按快照中的方案依次放置圆柱体，内核需为新建状态
+     * @param snapshot 方案快照
+     */
+    void load(Snapshot snapshot) {
+        for (int i = 0; i < placed.length; i++) {
+            if (snapshot.placed[i]) {
+                setPosition(i, snapshot.x[i], snapshot.y[i], snapshot.z[i]);
+                place(i);
+            }
+        }
+    }
+
+    /**
+     * 将放置结果写回圆柱体对象
+     * @param cylinders 构造内核时传入的圆柱体列表
+     */
+    void writeBack(List<Cylinder> cylinders) {
+        for (int i = 0; i < placed.length; i++) {
+            Cylinder cylinder = cylinders.get(i);
+            if (placed[i]) {
+                cylinder.setX(x[i]);
+                cylinder.setY(y[i]);
+                cylinder.setZ(z[i]);
+            } else {
+                cylinder.setX(-radius[i]);
+                cylinder.setY(-radius[i]);
+                cylinder.setZ(-height[i]);
+            }
+        }
+    }
+
+    int size() {
+        return placed.length;
+    }
+
+    double getLength() {
+        return length;
+    }
+
+    double getWidth() {
+        return width;
+    }
+
+    double getContainerHeight() {
+        return containerHeight;
+    }
+
+    double radius(int item) {
+        return radius[item];
+    }
+
+    double height(int item) {
+        return height[item];
+    }
+
+    double value(int item) {
+        return value[item];
+    }
+
+    double x(int item) {
+        return x[item];
+    }
+
+    double y(int item) {
+        return y[item];
+    }
+
+    double z(int item) {
+        return z[item];
+    }
+
+    boolean isPlaced(int item) {
+        return placed[item];
+    }
+
+    int getPlacedCount() {
+        return placedCount;
+    }
+
+    /**
+     * @param index 放置顺序中的下标
+     * @return 对应的圆柱体编号
+     */
+    int placedItem(int index) {
+        return placedOrder[index];
+    }
+
+    double getPlacedValue() {
+        return placedValue;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    long getRemovals() {
+        return removals;
+    }
+
+    double volume(int item) {
+        return Math.PI * radius[item] * radius[item] * height[item];
+    }
+
+    /**
+     * @return 容器体积减去已放置圆柱体的体积，体积更大的圆柱体一定放不下
+     */
+    double getFreeVolume() {
+        return containerVolume - placedVolume;
+    }
+
+    FailureMemo getCandidateFailures() {
+        return candidateFailures;
+    }
+
+    FailureMemo getGridFailures() {
+        return gridFailures;
+    }
+
+    HeightLevels getHeightLevels() {
+        return heightLevels;
+    }
+
+    SpatialIndex getPlacedIndex() {
+        return placedIndex;
+    }
+
+    CandidateEngine getCandidateEngine() {
+        return candidateEngine;
+    }
+
+    OccupancyRaster getOccupancy() {
+        return occupancy;
+    }
+
+    LatticePacker.Cursors getLatticeCursors() {
+        return latticeCursors;
+    }
+
+    PlacementStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 装载方案快照：每个圆柱体的坐标和是否已放置
+     */
+    static final class Snapshot {
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+        private final boolean[] placed;
+        private double totalValue;
+
+        Snapshot(int count) {
+            x = new double[count];
+            y = new double[count];
+            z = new double[count];
+            placed = new boolean[count];
+        }
+
+        /**
+         * 用内核的当前方案覆盖快照
+         * @param kernel 放置内核，圆柱体数量需与快照一致
+         */
+        void copyFrom(PlacementKernel kernel) {
+            System.arraycopy(kernel.x, 0, x, 0, x.length);
+            System.arraycopy(kernel.y, 0, y, 0, y.length);
+            System.arraycopy(kernel.z, 0, z, 0, z.length);
+            System.arraycopy(kernel.placed, 0, placed, 0, placed.length);
+            totalValue = kernel.placedValue;
+        }
+
+        double getTotalValue() {
+            return totalValue;
+        }
+    }
+}
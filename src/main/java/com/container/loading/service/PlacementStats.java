@@ -0,0 +1,65 @@
+package com.container.loading.service;
+
+/**
+ * 单个放置内核的探测统计
+ * 只在计算该方案的线程中累加，方案结束后由 {@link LoadingMetrics} 一次性计入计数器，
+ * 避免在探测循环中直接更新共享的计数器
+ */
+class PlacementStats {
+
+    private long candidatesProbed;
+    private long overlapChecks;
+    private long heightLevelsScanned;
+    private long searchesSkipped;
+    private long rasterRejections;
+
+    void candidateProbed() {
+        candidatesProbed++;
+    }
+
+    void overlapChecked() {
+        overlapChecks++;
+    }
+
+    void heightLevelScanned() {
+        heightLevelsScanned++;
+    }
+
+    /**
+     * 记录一次因剩余体积不够或已有失败记录而跳过的位置搜索
+     */
+    void searchSkipped() {
+        searchesSkipped++;
+    }
+
+    /**
+     * 记录一批网格点的探测，被占用栅格排除的网格点不做重叠检查
+     * @param count 网格点数量
+     * @param rejected 其中被占用栅格直接排除的数量
+     */
+    void gridProbed(long count, long rejected) {
+        candidatesProbed += count;
+        overlapChecks += count - rejected;
+        rasterRejections += rejected;
+    }
+
+    long getCandidatesProbed() {
+        return candidatesProbed;
+    }
+
+    long getOverlapChecks() {
+        return overlapChecks;
+    }
+
+    long getHeightLevelsScanned() {
+        return heightLevelsScanned;
+    }
+
+    long getSearchesSkipped() {
+        return searchesSkipped;
+    }
+
+    long getRasterRejections() {
+        return rasterRejections;
+    }
+}
@@ -0,0 +1,243 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+import com.container.loading.model.Cylinder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 装载方案缓存
+ * 以货物清单指纹（排序后的圆柱体规格、容器尺寸和策略）为键缓存计算结果，
+ * 重复提交同一清单时直接套用已有方案，按最近最少使用淘汰，超过有效期的方案不再使用。
+ * 只按规格排序的策略中规格相同的圆柱体可以互换，因此清单行顺序不同时也能命中；
+ * 排序与编号有关的策略（如编号优先）按清单顺序把编号和规格一起计入指纹，套用时按编号和规格分配位置。
+ * 可被多个装载任务并发访问。
+ */
+class PlanCache {
+
+    // 按规格排序，计算指纹时与清单行顺序无关
+    private static final Comparator<Cylinder> SPEC_ORDER = Comparator.comparingDouble(Cylinder::getRadius)
+            .thenComparingDouble(Cylinder::getHeight)
+            .thenComparingDouble(Cylinder::getValue);
+
+    private final Map<String, Plan> plans;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    /**
+     * @param maxEntries 最多缓存的方案数量，0表示不缓存
+     * @param ttlMillis 方案的有效期（毫秒）
+     */
+    PlanCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.plans = new LinkedHashMap<String, Plan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    /**
+     * 计算货物清单指纹
+     * @param cylinders 圆柱体列表
+     * @param container 容器
+     * @param strategyKey 策略标识
+     * @param bySpecification 策略的排序是否只取决于规格，否则编号也计入指纹
+     * @return SHA-256 指纹的十六进制表示
+     */
+    static String fingerprint(List<Cylinder> cylinders, Container container, String strategyKey,
+                              boolean bySpecification) {
+        List<Cylinder> sorted = new ArrayList<>(cylinders);
+        if (bySpecification) {
+            sorted.sort(SPEC_ORDER);
+        }
+
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(3 * Double.BYTES + Integer.BYTES);
+        for (Cylinder cylinder : sorted) {
+            buffer.clear();
+            buffer.putDouble(cylinder.getRadius()).putDouble(cylinder.getHeight()).putDouble(cylinder.getValue());
+            buffer.putInt(bySpecification ? 0 : cylinder.getId());
+            digest.update(buffer.array());
+        }
+        buffer.clear();
+        buffer.putDouble(container.getLength()).putDouble(container.getWidth()).putDouble(container.getHeight());
+        digest.update(buffer.array(), 0, 3 * Double.BYTES);
+        digest.update(String.valueOf(strategyKey).getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 套用缓存的方案：按规格（排序与编号有关时按编号和规格）把缓存中的位置和颜色分配给圆柱体，
+     * 列表顺序与当初计算的结果一致
+     * @param fingerprint 货物清单指纹
+     * @param cylinders 圆柱体列表，命中时写入位置并重新排列
+     * @return 是否命中
+     */
+    boolean apply(String fingerprint, List<Cylinder> cylinders) {
+        Plan plan;
+        synchronized (plans) {
+            plan = plans.get(fingerprint);
+            if (plan != null && System.currentTimeMillis() - plan.createdAt > ttlMillis) {
+                plans.remove(fingerprint);
+                plan = null;
+            }
+        }
+        if (plan == null || plan.radius.length != cylinders.size()) {
+            return false;
+        }
+
+        // 规格相同的圆柱体按原有顺序依次分配
+        Map<Spec, ArrayDeque<Cylinder>> bySpec = new HashMap<>();
+        for (Cylinder cylinder : cylinders) {
+            int id = plan.id != null ? cylinder.getId() : 0;
+            bySpec.computeIfAbsent(new Spec(id, cylinder.getRadius(), cylinder.getHeight(), cylinder.getValue()),
+                    spec -> new ArrayDeque<>()).add(cylinder);
+        }
+        List<Cylinder> ordered = new ArrayList<>(cylinders.size());
+        for (int i = 0; i < plan.radius.length; i++) {
+            int id = plan.id != null ? plan.id[i] : 0;
+            ArrayDeque<Cylinder> candidates = bySpec.get(new Spec(id, plan.radius[i], plan.height[i], plan.value[i]));
+            if (candidates == null || candidates.isEmpty()) {
+                return false;
+            }
+            ordered.add(candidates.poll());
+        }
+
+        for (int i = 0; i < ordered.size(); i++) {
+            Cylinder cylinder = ordered.get(i);
+            cylinder.setX(plan.x[i]);
+            cylinder.setY(plan.y[i]);
+            cylinder.setZ(plan.z[i]);
+            cylinder.setColor(plan.color[i]);
+        }
+        cylinders.clear();
+        cylinders.addAll(ordered);
+        return true;
+    }
+
+    /**
+     * 缓存计算完成的方案
+     * @param fingerprint 货物清单指纹
+     * @param cylinders 已写入位置的圆柱体列表
+     * @param bySpecification 策略的排序是否只取决于规格，否则套用时按编号和规格分配位置
+     */
+    void put(String fingerprint, List<Cylinder> cylinders, boolean bySpecification) {
+        if (!isEnabled()) {
+            return;
+        }
+        Plan plan = new Plan(cylinders, bySpecification);
+        synchronized (plans) {
+            plans.put(fingerprint, plan);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前运行环境不支持SHA-256", e);
+        }
+    }
+
+    // 缓存的方案：按结果列表顺序保存每个圆柱体的规格、位置和颜色，排序与编号有关时还保存编号
+    private static final class Plan {
+        private final int[] id;
+        private final double[] radius;
+        private final double[] height;
+        private final double[] value;
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+        private final String[] color;
+        private final long createdAt = System.currentTimeMillis();
+
+        Plan(List<Cylinder> cylinders, boolean bySpecification) {
+            int count = cylinders.size();
+            id = bySpecification ? null : new int[count];
+            radius = new double[count];
+            height = new double[count];
+            value = new double[count];
+            x = new double[count];
+            y = new double[count];
+            z = new double[count];
+            color = new String[count];
+            for (int i = 0; i < count; i++) {
+                Cylinder cylinder = cylinders.get(i);
+                if (id != null) {
+                    id[i] = cylinder.getId();
+                }
+                radius[i] = cylinder.getRadius();
+                height[i] = cylinder.getHeight();
+                value[i] = cylinder.getValue();
+                x[i] = cylinder.getX();
+                y[i] = cylinder.getY();
+                z[i] = cylinder.getZ();
+                color[i] = cylinder.getColor();
+            }
+        }
+    }
+
+    // 圆柱体规格：编号（只按规格匹配时为0）、半径、高度、价值
+    private static final class Spec {
+        private final int id;
+        private final double radius;
+        private final double height;
+        private final double value;
+
+        Spec(int id, double radius, double height, double value) {
+            this.id = id;
+            this.radius = radius;
+            this.height = height;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Spec)) {
+                return false;
+            }
+            Spec other = (Spec) o;
+            return id == other.id && Double.compare(radius, other.radius) == 0 && Double.compare(height, other.height) == 0
+                    && Double.compare(value, other.value) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            // 每个圆柱体查询一次，不装箱；与 equals 一致按位比较，不合并 -0.0 与 0.0
+            int hash = 31 * id + Double.hashCode(radius);
+            hash = 31 * hash + Double.hashCode(height);
+            return 31 * hash + Double.hashCode(value);
+        }
+    }
+}
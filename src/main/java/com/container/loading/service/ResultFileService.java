@@ -0,0 +1,88 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Cylinder;
+import com.container.loading.util.ExcelUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 装箱结果文件服务
+ * 每次装箱的结果写入结果目录中独立的文件，并发请求互不覆盖；
+ * 超过保留期限的结果文件在写入新文件时清理
+ */
+@Service
+public class ResultFileService {
+
+    private static final String SUFFIX = ".xlsx";
+    private static final Pattern RESULT_ID = Pattern.compile("[0-9a-f\\-]{36}");
+
+    private final Path directory;
+    private final long retentionMillis;
+
+    public ResultFileService(@Value("${loading.results.dir:}") String directory,
+                             @Value("${loading.results.retention-minutes:60}") long retentionMinutes) throws IOException {
+        this.directory = directory.isEmpty()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "container-loading-results")
+                : Paths.get(directory);
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * 保存装箱结果
+     * @param cylinders 圆柱体列表
+     * @param strategyName 使用的策略名称
+     * @return 结果文件编号
+     * @throws IOException 文件写入异常
+     */
+    public String save(List<Cylinder> cylinders, String strategyName) throws IOException {
+        removeExpiredFiles();
+
+        String resultId = UUID.randomUUID().toString();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(resolve(resultId)))) {
+            ExcelUtil.writeResults(cylinders, out, strategyName);
+        }
+        return resultId;
+    }
+
+    /**
+     * @param resultId 结果文件编号
+     * @return 结果文件路径，编号无效或文件已清理时为空
+     */
+    public Optional<Path> find(String resultId) {
+        if (!RESULT_ID.matcher(resultId).matches()) {
+            return Optional.empty();
+        }
+        Path file = resolve(resultId);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private Path resolve(String resultId) {
+        return directory.resolve(resultId + SUFFIX);
+    }
+
+    // 删除修改时间超过保留期限的结果文件
+    private void removeExpiredFiles() throws IOException {
+        long expireBefore = System.currentTimeMillis() - retentionMillis;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < expireBefore) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.container.loading.service;
+
+import com.container.loading.model.Container;
+
+import java.util.Arrays;
+
+/**
+ * 已放置圆柱体的空间索引
+ * 以最大半径的两倍为边长把容器底面划分为均匀网格，
+ * 每个桶以基本类型数组记录落在其中的圆柱体坐标、半径及其Z区间，
+ * 重叠检测只需查询候选位置附近的桶
+ */
+class SpatialIndex {
+
+    // 网格数量上限，防止容器很大而圆柱体很小时桶数组过大
+    private static final int MAX_CELLS = 1 << 20;
+    // 重叠判断的容差：紧密排列的相切圆柱体的圆心距离可能因浮点误差略小于半径之和
+    static final double TOLERANCE = 1e-9;
+
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final double maxRadius;
+    private final Bucket[] buckets;
+
+    /**
+     * @param container 容器
+     * @param maxRadius 本次装载涉及的圆柱体的最大半径
+     */
+    SpatialIndex(Container container, double maxRadius) {
+        this.maxRadius = Math.max(maxRadius, 1e-6);
+        double size = 2 * this.maxRadius;
+        double length = Math.max(container.getLength(), size);
+        double width = Math.max(container.getWidth(), size);
+        while (Math.ceil(length / size) * Math.ceil(width / size) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.cellSize = size;
+        this.cols = (int) Math.ceil(length / size);
+        this.rows = (int) Math.ceil(width / size);
+        this.buckets = new Bucket[cols * rows];
+    }
+
+    /**
+     * 记录一个已放置的圆柱体
+     * @param id 圆柱体在放置内核中的编号
+     */
+    void insert(int id, double x, double y, double radius, double zBottom, double zTop) {
+        int index = cellRow(y) * cols + cellCol(x);
+        Bucket bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets[index] = bucket;
+        }
+        bucket.add(id, x, y, radius, zBottom, zTop);
+    }
+
+    /**
+     * 移除一个已记录的圆柱体
+     * @param id 圆柱体在放置内核中的编号
+     * @param x 记录时的X坐标
+     * @param y 记录时的Y坐标
+     */
+    void remove(int id, double x, double y) {
+        Bucket bucket = buckets[cellRow(y) * cols + cellCol(x)];
+        if (bucket != null) {
+            bucket.remove(id);
+        }
+    }
+
+    /**
+     * 检查位于(x, y)、Z区间为[zBottom, zTop)的圆柱体是否与已放置的圆柱体重叠
+     * @return 是否重叠
+     */
+    boolean overlaps(double x, double y, double radius, double zBottom, double zTop) {
+        return overlaps(x, y, radius, zBottom, zTop, -1);
+    }
+
+    /**
+     * 检查是否与编号不是 ignored 的已放置圆柱体重叠，用于评估移走某个圆柱体后的方案
+     * @param ignored 不参与检查的圆柱体编号，-1表示全部检查
+     * @return 是否重叠
+     */
+    boolean overlaps(double x, double y, double radius, double zBottom, double zTop, int ignored) {
+        // 只有圆心落在此范围内的圆柱体才可能与之相交
+        double reach = radius + maxRadius;
+        int colFrom = cellCol(x - reach);
+        int colTo = cellCol(x + reach);
+        int rowFrom = cellRow(y - reach);
+        int rowTo = cellRow(y + reach);
+
+        for (int row = rowFrom; row <= rowTo; row++) {
+            for (int col = colFrom; col <= colTo; col++) {
+                Bucket bucket = buckets[row * cols + col];
+                if (bucket != null && bucket.overlaps(x, y, radius, zBottom, zTop, ignored)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 收集圆心在给定范围内且与Z区间相交的已放置圆柱体编号
+     * @param x 中心X坐标
+     * @param y 中心Y坐标
+     * @param reach 圆心距离上限
+     * @param zBottom Z区间下界
+     * @param zTop Z区间上界
+     * @param out 输出列表（调用方负责清空）
+     */
+    void collect(double x, double y, double reach, double zBottom, double zTop, IntList out) {
+        int colFrom = cellCol(x - reach);
+        int colTo = cellCol(x + reach);
+        int rowFrom = cellRow(y - reach);
+        int rowTo = cellRow(y + reach);
+        double reachSquared = reach * reach;
+
+        for (int row = rowFrom; row <= rowTo; row++) {
+            for (int col = colFrom; col <= colTo; col++) {
+                Bucket bucket = buckets[row * cols + col];
+                if (bucket != null) {
+                    bucket.collect(x, y, reachSquared, zBottom, zTop, out);
+                }
+            }
+        }
+    }
+
+    double getMaxRadius() {
+        return maxRadius;
+    }
+
+    private int cellCol(double x) {
+        int col = (int) Math.floor(x / cellSize);
+        return Math.max(0, Math.min(cols - 1, col));
+    }
+
+    private int cellRow(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    // 桶：保存圆柱体的坐标、半径和Z区间，先比较Z区间再计算平面距离
+    private static class Bucket {
+        int[] ids = new int[4];
+        double[] xs = new double[4];
+        double[] ys = new double[4];
+        double[] radii = new double[4];
+        double[] zBottoms = new double[4];
+        double[] zTops = new double[4];
+        int size;
+
+        void add(int id, double x, double y, double radius, double zBottom, double zTop) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                radii = Arrays.copyOf(radii, capacity);
+                zBottoms = Arrays.copyOf(zBottoms, capacity);
+                zTops = Arrays.copyOf(zTops, capacity);
+            }
+            ids[size] = id;
+            xs[size] = x;
+            ys[size] = y;
+            radii[size] = radius;
+            zBottoms[size] = zBottom;
+            zTops[size] = zTop;
+            size++;
+        }
+
+        // 用最后一个元素覆盖被移除的圆柱体
+        void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    xs[i] = xs[size];
+                    ys[i] = ys[size];
+                    radii[i] = radii[size];
+                    zBottoms[i] = zBottoms[size];
+                    zTops[i] = zTops[size];
+                    return;
+                }
+            }
+        }
+
+        boolean overlaps(double x, double y, double radius, double zBottom, double zTop, int ignored) {
+            for (int i = 0; i < size; i++) {
+                // 高度方向不重叠则无需计算距离
+                if (zTop <= zBottoms[i] || zBottom >= zTops[i] || ids[i] == ignored) {
+                    continue;
+                }
+                double dx = x - xs[i];
+                double dy = y - ys[i];
+                double minDistance = radius + radii[i] - TOLERANCE;
+                if (dx * dx + dy * dy < minDistance * minDistance) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void collect(double x, double y, double reachSquared, double zBottom, double zTop, IntList out) {
+            for (int i = 0; i < size; i++) {
+                if (zTop <= zBottoms[i] || zBottom >= zTops[i]) {
+                    continue;
+                }
+                double dx = x - xs[i];
+                double dy = y - ys[i];
+                if (dx * dx + dy * dy <= reachSquared) {
+                    out.add(ids[i]);
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.container.loading.service;
 
-import com.container.loading.model.Container;
 import com.container.loading.model.Cylinder;
-import java.util.*;
+
+import java.util.List;
+import java.util.function.IntPredicate;
 
 /**
  * 价值最大化策略
@@ -10,6 +11,20 @@ import java.util.*;
  */
 public class ValueMaximizationStrategy implements LoadingStrategy {
     
+    // 局部搜索的最大轮数，每轮依次进行替换和插入
+    private static final int MAX_ROUNDS = 3;
+    // 每个被替换的圆柱体最多尝试的未放置圆柱体数量
+    private static final int MAX_CANDIDATES = 32;
+    // 一次替换最多放进的圆柱体数量
+    private static final int MAX_INSERTED = 3;
+    // 半径超过被替换圆柱体此倍数的圆柱体很难放进腾出的空间，直接跳过
+    private static final double MAX_RADIUS_RATIO = 1.25;
+    // 总价值的比较容差
+    private static final double VALUE_EPS = 1e-9;
+    // 腾出空间中的偏移方向：原位置，然后依次为8个方向（奇数下标为坐标轴方向，偶数下标为对角方向）
+    private static final int[] OFFSET_X = {0, 1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] OFFSET_Y = {0, 0, 1, 1, 1, 0, -1, -1, -1};
+    
     @Override
     public void sortCylinders(List<Cylinder> cylinders) {
         // 首先按价值密度（价值/体积）排序
@@ -36,125 +51,190 @@ public class ValueMaximizationStrategy implements LoadingStrategy {
     }
     
     /**
-     * 使用价值最大化算法优化装载
-     * 这个方法会在LoadingService中被调用
-     * 
-     * @param cylinders 圆柱体列表
-     * @param container 容器
-     * @return 优化后的圆柱体放置顺序
+     * 局部搜索：在已经装好的方案上反复尝试替换和插入，只接受总价值提高的移动。
+     * 替换移动移走一个低价值的已放置圆柱体，把价值更高的一个（交换）或多个未放置圆柱体放进腾出的空间；
+     * 插入移动把未放置的圆柱体（包括被换下的）放进剩余空间。
+     * 每次移动的价值变化直接由涉及的圆柱体算出，可行性只在腾出的空间附近检查，
+     * 不复制方案，也不重新装载整个清单
+     *
+     * @param kernel 已装好方案的放置内核，移动直接作用在内核上
+     * @param insert 尝试为未放置的圆柱体寻找位置并放置，成功时返回 true
+     * @param progress 进度与取消控制，时间预算用完时停止搜索
+     * @return 接受的移动次数
      */
-    public List<Cylinder> optimizeLoading(List<Cylinder> cylinders, Container container) {
-        // 复制原始列表，防止修改原始数据
-        List<Cylinder> result = new ArrayList<>(cylinders);
-        
-        // 1. 首先使用价值密度排序
-        sortCylinders(result);
-        
-        // 2. 使用贪心算法尝试初步放置
-        List<Cylinder> initialPlacement = new ArrayList<>(result);
-        
-        // 3. 使用局部搜索优化初步方案
-        return localSearch(initialPlacement, container);
+    int localSearch(PlacementKernel kernel, IntPredicate insert, LoadingProgress progress) {
+        int accepted = 0;
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            // 进入局部搜索前剩余空间已经搜索过，只有替换成功后才可能插入新的圆柱体
+            int replaced = replacePass(kernel, progress);
+            if (replaced == 0) {
+                break;
+            }
+            accepted += replaced + insertPass(kernel, insert, progress);
+            if (progress.checkDeadline()) {
+                break;
+            }
+        }
+        return accepted;
     }
-    
-    /**
-     * 局部搜索优化算法
-     * 尝试交换、替换等操作，寻找更优的解
-     * 
-     * @param initialPlacement 初步放置方案
-     * @param container 容器
-     * @return 优化后的放置方案
-     */
-    private List<Cylinder> localSearch(List<Cylinder> initialPlacement, Container container) {
-        List<Cylinder> currentBest = new ArrayList<>(initialPlacement);
-        double currentBestValue = calculateTotalValue(initialPlacement);
-        boolean improved;
-        
-        // 最大迭代次数，防止无限循环
-        int maxIterations = 100;
-        int iteration = 0;
-        
-        do {
-            improved = false;
-            iteration++;
-            
-            // 尝试交换操作
-            for (int i = 0; i < currentBest.size(); i++) {
-                for (int j = i + 1; j < currentBest.size(); j++) {
-                    List<Cylinder> candidateSolution = new ArrayList<>(currentBest);
-                    // 交换两个圆柱体的位置
-                    Collections.swap(candidateSolution, i, j);
-                    
-                    double candidateValue = calculateTotalValue(candidateSolution);
-                    if (candidateValue > currentBestValue) {
-                        currentBest = candidateSolution;
-                        currentBestValue = candidateValue;
-                        improved = true;
-                    }
-                }
+
+    // 按价值从低到高依次尝试替换已放置的圆柱体
+    private int replacePass(PlacementKernel kernel, LoadingProgress progress) {
+        int[] placedItems = new int[kernel.getPlacedCount()];
+        for (int i = 0; i < placedItems.length; i++) {
+            placedItems[i] = kernel.placedItem(i);
+        }
+        sortByValue(kernel, placedItems, true);
+        int[] unplacedItems = unplacedByValue(kernel);
+        if (unplacedItems.length == 0) {
+            return 0;
+        }
+
+        Hole hole = new Hole();
+        int accepted = 0;
+        for (int removed : placedItems) {
+            progress.checkCancelled();
+            if (progress.checkDeadline()) {
+                break;
+            }
+            if (kernel.isPlaced(removed) && tryReplace(kernel, removed, unplacedItems, hole)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    // 按价值从高到低尝试插入未放置的圆柱体
+    private int insertPass(PlacementKernel kernel, IntPredicate insert, LoadingProgress progress) {
+        int accepted = 0;
+        for (int item : unplacedByValue(kernel)) {
+            progress.checkCancelled();
+            if (progress.checkDeadline()) {
+                break;
+            }
+            if (insert.test(item)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    // 移走 removed 后能放进腾出空间的未放置圆柱体总价值更高时执行替换
+    private boolean tryReplace(PlacementKernel kernel, int removed, int[] unplacedItems, Hole hole) {
+        double removedValue = kernel.value(removed);
+        double maxRadius = kernel.radius(removed) * MAX_RADIUS_RATIO;
+        hole.clear();
+        double gained = 0;
+        int tried = 0;
+        for (int item : unplacedItems) {
+            if (kernel.value(item) <= 0 || tried == MAX_CANDIDATES || hole.size == MAX_INSERTED) {
+                break; // 按价值降序排列，后面的圆柱体价值更低
+            }
+            if (kernel.isPlaced(item) || kernel.radius(item) > maxRadius) {
+                continue;
             }
-            
-            // 尝试移除某些低价值圆柱体，以放入更多高价值密度的小圆柱体
-            if (!improved && iteration < maxIterations / 2) {
-                List<Cylinder> candidateRemoval = new ArrayList<>(currentBest);
-                // 按价值密度从低到高排序
-                candidateRemoval.sort(Comparator.comparingDouble(this::calculateValueDensity));
-                
-                // 移除价值密度最低的圆柱体
-                if (!candidateRemoval.isEmpty()) {
-                    Cylinder removed = candidateRemoval.remove(0);
-                    double volumeFreed = Math.PI * Math.pow(removed.getRadius(), 2) * removed.getHeight();
-                    
-                    // 尝试找到能放入的、价值密度更高的小圆柱体
-                    List<Cylinder> candidates = new ArrayList<>(initialPlacement);
-                    candidates.removeAll(candidateRemoval);
-                    
-                    // 按价值密度从高到低排序
-                    candidates.sort((c1, c2) -> Double.compare(
-                        calculateValueDensity(c2), calculateValueDensity(c1)
-                    ));
-                    
-                    double additionalVolume = 0;
-                    double additionalValue = 0;
-                    List<Cylinder> toAdd = new ArrayList<>();
-                    
-                    // 贪心地添加小圆柱体，直到填满释放的空间
-                    for (Cylinder candidate : candidates) {
-                        double candidateVolume = Math.PI * Math.pow(candidate.getRadius(), 2) * candidate.getHeight();
-                        if (additionalVolume + candidateVolume <= volumeFreed * 1.1) { // 允许10%的误差
-                            additionalVolume += candidateVolume;
-                            additionalValue += candidate.getValue();
-                            toAdd.add(candidate);
-                        }
-                    }
-                    
-                    // 如果替换后总价值更高，则接受此方案
-                    if (additionalValue > removed.getValue()) {
-                        candidateRemoval.addAll(toAdd);
-                        double candidateValue = calculateTotalValue(candidateRemoval);
-                        if (candidateValue > currentBestValue) {
-                            currentBest = candidateRemoval;
-                            currentBestValue = candidateValue;
-                            improved = true;
-                        }
-                    }
+            tried++;
+            if (findHolePosition(kernel, item, removed, hole)) {
+                gained += kernel.value(item);
+            }
+        }
+        if (gained <= removedValue + VALUE_EPS) {
+            return false;
+        }
+
+        kernel.remove(removed);
+        for (int i = 0; i < hole.size; i++) {
+            kernel.setPosition(hole.items[i], hole.xs[i], hole.ys[i], hole.zs[i]);
+            kernel.place(hole.items[i]);
+        }
+        return true;
+    }
+
+    // 在 removed 腾出的空间中为 item 寻找位置：圆心与原位置重合或沿8个方向偏移半径差，
+    // 高度从原位置底面或本次已放进的圆柱体顶面开始
+    private boolean findHolePosition(PlacementKernel kernel, int item, int removed, Hole hole) {
+        double cx = kernel.x(removed);
+        double cy = kernel.y(removed);
+        double offset = Math.abs(kernel.radius(removed) - kernel.radius(item));
+        double diagonal = offset / Math.sqrt(2);
+        int levels = hole.size + 1;
+        for (int level = 0; level < levels; level++) {
+            double z = level == 0 ? kernel.z(removed) : hole.zs[level - 1] + kernel.height(hole.items[level - 1]);
+            for (int direction = 0; direction < (offset > 0 ? 9 : 1); direction++) {
+                double x = cx + OFFSET_X[direction] * (direction % 2 == 1 ? offset : diagonal);
+                double y = cy + OFFSET_Y[direction] * (direction % 2 == 1 ? offset : diagonal);
+                if (kernel.fitsWithout(item, x, y, z, removed) && !hole.overlaps(kernel, item, x, y, z)) {
+                    hole.add(item, x, y, z);
+                    return true;
                 }
             }
-            
-        } while (improved && iteration < maxIterations);
-        
-        return currentBest;
+        }
+        return false;
     }
-    
-    /**
-     * 计算圆柱体列表的总价值
-     * 
-     * @param cylinders 圆柱体列表
-     * @return 总价值
-     */
-    private double calculateTotalValue(List<Cylinder> cylinders) {
-        return cylinders.stream()
-                .mapToDouble(Cylinder::getValue)
-                .sum();
+
+    // 未放置圆柱体的编号，按价值从高到低排列
+    private static int[] unplacedByValue(PlacementKernel kernel) {
+        int[] items = new int[kernel.size() - kernel.getPlacedCount()];
+        int count = 0;
+        for (int item = 0; item < kernel.size(); item++) {
+            if (!kernel.isPlaced(item)) {
+                items[count++] = item;
+            }
+        }
+        sortByValue(kernel, items, false);
+        return items;
+    }
+
+    // 按价值稳定排序，价值相同时保持原有顺序；每轮局部搜索都会调用，不装箱
+    private static void sortByValue(PlacementKernel kernel, int[] items, boolean ascending) {
+        double[] keys = new double[items.length];
+        for (int i = 0; i < items.length; i++) {
+            keys[i] = ascending ? kernel.value(items[i]) : -kernel.value(items[i]);
+        }
+        int[] order = GridTemplate.stableOrder(keys);
+        int[] sorted = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            sorted[i] = items[order[i]];
+        }
+        System.arraycopy(sorted, 0, items, 0, items.length);
+    }
+
+    // 一次替换中放进腾出空间的圆柱体及其位置
+    private static final class Hole {
+        final int[] items = new int[MAX_INSERTED];
+        final double[] xs = new double[MAX_INSERTED];
+        final double[] ys = new double[MAX_INSERTED];
+        final double[] zs = new double[MAX_INSERTED];
+        int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(int item, double x, double y, double z) {
+            items[size] = item;
+            xs[size] = x;
+            ys[size] = y;
+            zs[size] = z;
+            size++;
+        }
+
+        // 是否与本次已放进的圆柱体重叠
+        boolean overlaps(PlacementKernel kernel, int item, double x, double y, double z) {
+            double top = z + kernel.height(item);
+            for (int i = 0; i < size; i++) {
+                int other = items[i];
+                if (top <= zs[i] || z >= zs[i] + kernel.height(other)) {
+                    continue;
+                }
+                double dx = x - xs[i];
+                double dy = y - ys[i];
+                double minDistance = kernel.radius(item) + kernel.radius(other);
+                if (dx * dx + dy * dy < minDistance * minDistance) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
-} 
\ No newline at end of file
+}
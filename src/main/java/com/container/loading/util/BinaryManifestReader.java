@@ -0,0 +1,55 @@
+package com.container.loading.util;
+
+import com.container.loading.model.Cylinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * 二进制清单读取器
+ * 文件由定长记录组成，每条记录依次为半径、高度、价值三个小端序 float64，共24字节，没有文件头。
+ * 通过内存映射读取，大文件按窗口分段映射。
+ */
+final class BinaryManifestReader {
+
+    static final int RECORD_SIZE = 3 * Double.BYTES;
+    // 每个映射窗口包含的记录数，窗口大小需小于2GB
+    private static final long RECORDS_PER_WINDOW = 1 << 24;
+
+    private BinaryManifestReader() {
+    }
+
+    /**
+     * 依次读取二进制文件中的圆柱体数据
+     * @param file 二进制清单文件
+     * @param consumer 每读取一条记录即回调一次
+     * @throws IOException 文件读取异常或文件长度不是记录长度的整数倍
+     */
+    static void read(File file, Consumer<Cylinder> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % RECORD_SIZE != 0) {
+                throw new IOException("二进制清单文件长度不是" + RECORD_SIZE + "字节的整数倍：" + size);
+            }
+
+            int id = 1;
+            long windowSize = RECORDS_PER_WINDOW * RECORD_SIZE;
+            for (long position = 0; position < size; position += windowSize) {
+                DoubleBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position))
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asDoubleBuffer();
+                while (records.hasRemaining()) {
+                    double radius = records.get();
+                    double height = records.get();
+                    double value = records.get();
+                    consumer.accept(ExcelUtil.createCylinder(id++, radius, height, value));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.container.loading.util;
+
+import com.container.loading.model.Cylinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+
+/**
+ * CSV清单读取器
+ * 每行依次为半径、高度、价值（可省略），分隔符可以是逗号、分号或制表符；
+ * 第一行不是数字时视为标题行跳过。
+ * 直接在字节缓冲区上解析数字，除圆柱体本身外不为单元格创建任何对象。
+ */
+final class CsvManifestReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // 单个字段的最大长度，超出时视为无效数字
+    private static final int MAX_FIELD_LENGTH = 64;
+    private static final int COLUMNS = 3;
+
+    // 小于2^53的整数与10^22以内的10的幂都能精确表示，此时一次乘除即得到正确舍入的结果
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Consumer<Cylinder> consumer;
+    private final byte[] field = new byte[MAX_FIELD_LENGTH];
+    private final double[] values = new double[COLUMNS];
+    private int fieldLength;
+    private boolean fieldTooLong;
+    private int column;
+    private boolean lineHasContent;
+    private int lineNumber = 1;
+    private int nextId = 1;
+
+    private CsvManifestReader(Consumer<Cylinder> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * 逐行读取CSV文件中的圆柱体数据
+     * @param file CSV文件
+     * @param consumer 每读取一行即回调一次
+     * @throws IOException 文件读取异常或数据格式错误
+     */
+    static void read(File file, Consumer<Cylinder> consumer) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            new CsvManifestReader(consumer).parse(in);
+        }
+    }
+
+    private void parse(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean first = true;
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            int start = 0;
+            // 跳过UTF-8的BOM
+            if (first && read >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+                start = 3;
+            }
+            first = false;
+            for (int i = start; i < read; i++) {
+                accept(buffer[i]);
+            }
+        }
+        if (lineHasContent) {
+            endLine();
+        }
+    }
+
+    private void accept(byte b) throws IOException {
+        switch (b) {
+            case '\n':
+                endLine();
+                break;
+            case ',':
+            case ';':
+            case '\t':
+                endField();
+                lineHasContent = true;
+                break;
+            case '\r':
+            case ' ':
+            case '"':
+                break;
+            default:
+                if (fieldLength < MAX_FIELD_LENGTH) {
+                    field[fieldLength++] = b;
+                } else {
+                    fieldTooLong = true;
+                }
+                lineHasContent = true;
+        }
+    }
+
+    private void endField() {
+        if (column < COLUMNS) {
+            values[column] = fieldTooLong ? Double.NaN : parseNumber(field, fieldLength);
+        }
+        column++;
+        fieldLength = 0;
+        fieldTooLong = false;
+    }
+
+    private void endLine() throws IOException {
+        if (lineHasContent) {
+            endField();
+            double radius = values[0];
+            double height = column > 1 ? values[1] : Double.NaN;
+            double value = column > 2 ? values[2] : 0;
+            if (Double.isNaN(radius) || Double.isNaN(height)) {
+                // 第一行不是数字时视为标题行
+                if (lineNumber != 1) {
+                    throw new IOException("CSV文件第" + lineNumber + "行的半径或高度不是有效数字");
+                }
+            } else {
+                // 价值无法识别为数值时设为0，与Excel文件一致
+                consumer.accept(ExcelUtil.createCylinder(nextId++, radius, height, Double.isNaN(value) ? 0 : value));
+            }
+        }
+        lineNumber++;
+        column = 0;
+        fieldLength = 0;
+        fieldTooLong = false;
+        lineHasContent = false;
+    }
+
+    /**
+     * 解析十进制数字
+     * 有效数字不超过2^53且指数在±22以内时直接计算，否则交给 Double.parseDouble
+     * @return 解析结果，不是有效数字时为NaN
+     */
+    static double parseNumber(byte[] s, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (s[i] == '-' || s[i] == '+')) {
+            negative = s[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean exact = true;
+        for (; i < length && isDigit(s[i]); i++) {
+            hasDigits = true;
+            if (mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = mantissa * 10 + (s[i] - '0');
+            } else {
+                exact = false;
+                exponent++;
+            }
+        }
+        if (i < length && s[i] == '.') {
+            for (i++; i < length && isDigit(s[i]); i++) {
+                hasDigits = true;
+                if (mantissa < MAX_EXACT_MANTISSA) {
+                    mantissa = mantissa * 10 + (s[i] - '0');
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+        if (!hasDigits) {
+            return Double.NaN;
+        }
+
+        if (i < length && (s[i] == 'e' || s[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (s[i] == '-' || s[i] == '+')) {
+                negativeExponent = s[i] == '-';
+                i++;
+            }
+            if (i == length) {
+                return Double.NaN;
+            }
+            int explicit = 0;
+            for (; i < length && isDigit(s[i]); i++) {
+                if (explicit < 10000) {
+                    explicit = explicit * 10 + (s[i] - '0');
+                }
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i != length) {
+            return Double.NaN;
+        }
+
+        if (!exact || mantissa > MAX_EXACT_MANTISSA || Math.abs(exponent) >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(s, 0, length, StandardCharsets.US_ASCII));
+        }
+        double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -result : result;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
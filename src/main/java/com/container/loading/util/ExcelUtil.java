@@ -1,27 +1,92 @@
 package com.container.loading.util;
 
 import com.container.loading.model.Cylinder;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.web.multipart.MultipartFile;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ExcelUtil {
 
+    // 流式写入时内存中保留的行数
+    private static final int ROW_WINDOW_SIZE = 200;
+
+    // 结果表各列的固定宽度（字符数）
+    private static final int[] COLUMN_WIDTHS = {10, 12, 12, 12, 16, 16, 16, 12, 16};
+
     /**
      * 从Excel文件读取圆柱体数据
      * @param file Excel文件
      * @return 圆柱体列表
      * @throws IOException 文件读取异常
      */
-    public static List<Cylinder> readCylinders(MultipartFile file) throws IOException {
+    public static List<Cylinder> readCylinders(File file) throws IOException {
         List<Cylinder> cylinders = new ArrayList<>();
-        
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
+        forEachCylinder(file, cylinders::add);
+        return cylinders;
+    }
+
+    /**
+     * 逐行读取Excel文件中的圆柱体数据
+     * .xlsx 文件基于SAX事件模型流式解析，内存占用与行数无关；
+     * 旧版 .xls 文件仍通过完整的工作簿对象读取
+     * @param file Excel文件
+     * @param consumer 每读取一行即回调一次
+     * @throws IOException 文件读取异常
+     */
+    public static void forEachCylinder(File file, Consumer<Cylinder> consumer) throws IOException {
+        if (FileMagic.valueOf(file) == FileMagic.OOXML) {
+            streamXlsx(file, consumer);
+        } else {
+            readWorkbook(file, consumer);
+        }
+    }
+
+    // 使用XSSF事件模型流式解析第一个工作表
+    private static void streamXlsx(File file, Consumer<Cylinder> consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings,
+                        new CylinderRowHandler(consumer), new RawNumberFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("无法解析Excel文件：" + e.getMessage(), e);
+        }
+    }
+
+    // 通过完整的工作簿对象读取（用于 .xls 文件）
+    private static void readWorkbook(File file, Consumer<Cylinder> consumer) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
             Sheet sheet = workbook.getSheetAt(0);
             
             // 跳过标题行
@@ -60,23 +125,24 @@ public class ExcelUtil {
                     }
                 }
                 
-                // 创建圆柱体对象
-                Cylinder cylinder = new Cylinder();
-                cylinder.setId(id++);
-                cylinder.setRadius(radius);
-                cylinder.setHeight(height);
-                cylinder.setValue(value);
-                
-                // 初始未放置位置设为负坐标
-                cylinder.setX(-radius);
-                cylinder.setY(-radius);
-                cylinder.setZ(-height);
-                
-                cylinders.add(cylinder);
+                consumer.accept(createCylinder(id++, radius, height, value));
             }
         }
+    }
+
+    // 创建圆柱体对象
+    static Cylinder createCylinder(int id, double radius, double height, double value) {
+        Cylinder cylinder = new Cylinder();
+        cylinder.setId(id);
+        cylinder.setRadius(radius);
+        cylinder.setHeight(height);
+        cylinder.setValue(value);
         
-        return cylinders;
+        // 初始未放置位置设为负坐标
+        cylinder.setX(-radius);
+        cylinder.setY(-radius);
+        cylinder.setZ(-height);
+        return cylinder;
     }
 
     /**
@@ -87,9 +153,30 @@ public class ExcelUtil {
      * @throws IOException 文件写入异常
      */
     public static void writeResults(List<Cylinder> cylinders, String filePath, String strategyName) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(filePath))) {
+            writeResults(cylinders, fileOut, strategyName);
+        }
+    }
+
+    /**
+     * 将结果以Excel格式写入输出流
+     * 使用SXSSF流式写入，内存中只保留最近的若干行，列宽固定，不做自动调整
+     * @param cylinders 圆柱体列表
+     * @param out 输出流（不会被关闭）
+     * @param strategyName 使用的策略名称
+     * @throws IOException 写入异常
+     */
+    public static void writeResults(List<Cylinder> cylinders, OutputStream out, String strategyName) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+        try {
+            workbook.setCompressTempFiles(true);
             Sheet sheet = workbook.createSheet("装箱结果");
             
+            // 固定列宽
+            for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+            }
+            
             // 创建标题行
             Row headerRow = sheet.createRow(0);
             headerRow.createCell(0).setCellValue("货物ID");
@@ -117,15 +204,79 @@ public class ExcelUtil {
                 row.createCell(8).setCellValue(strategyName);
             }
             
-            // 自动调整列宽
-            for (int i = 0; i < 9; i++) {
-                sheet.autoSizeColumn(i);
+            workbook.write(out);
+        } finally {
+            // 删除流式写入产生的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    // SAX行处理器：每读完一行生成一个圆柱体，第一行为标题行
+    private static class CylinderRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Consumer<Cylinder> consumer;
+        private boolean isFirstRow = true;
+        private int id = 1;
+        private int rowNum;
+        private double radius;
+        private double height;
+        private double value;
+
+        CylinderRowHandler(Consumer<Cylinder> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            this.rowNum = rowNum;
+            radius = 0;
+            height = 0;
+            value = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (isFirstRow) {
+                isFirstRow = false;
+                return;
             }
-            
-            // 写入文件
-            try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-                workbook.write(fileOut);
+            consumer.accept(createCylinder(id++, radius, height, value));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (isFirstRow || cellReference == null || formattedValue == null) {
+                return;
+            }
+            int column = new CellReference(cellReference).getCol();
+            if (column == 0) {
+                radius = parseNumber(formattedValue, "半径");
+            } else if (column == 1) {
+                height = parseNumber(formattedValue, "高度");
+            } else if (column == 2) {
+                // 如果无法读取为数值，则设为0
+                try {
+                    value = Double.parseDouble(formattedValue);
+                } catch (NumberFormatException e) {
+                    value = 0;
+                }
             }
         }
+
+        private double parseNumber(String text, String columnName) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("第" + (rowNum + 1) + "行的" + columnName + "不是数值：" + text);
+            }
+        }
+    }
+
+    // 数值单元格直接返回原始数值，不按单元格格式转换为显示文本
+    private static class RawNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return Double.toString(value);
+        }
     }
-} 
\ No newline at end of file
+}
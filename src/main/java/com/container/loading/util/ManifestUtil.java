@@ -0,0 +1,123 @@
+package com.container.loading.util;
+
+import com.container.loading.model.Cylinder;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 货物清单读取工具
+ * 根据文件扩展名或内容类型识别清单格式：Excel（.xlsx/.xls）、CSV（.csv）
+ * 以及由 float64 三元组组成的二进制格式（.bin）
+ */
+public class ManifestUtil {
+
+    /**
+     * 清单格式
+     */
+    public enum Format {
+        EXCEL, CSV, BINARY
+    }
+
+    /**
+     * 从上传的清单文件读取圆柱体数据
+     * 上传内容先落盘到临时文件，再按识别出的格式读取
+     * @param file 清单文件
+     * @return 圆柱体列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<Cylinder> readCylinders(MultipartFile file) throws IOException {
+        Path spooled = Files.createTempFile("manifest-", ".upload");
+        try {
+            file.transferTo(spooled);
+            Format format = detectFormat(spooled.toFile(), file.getOriginalFilename(), file.getContentType());
+            return readCylinders(spooled.toFile(), format);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    /**
+     * 从清单文件读取圆柱体数据，格式由文件扩展名识别
+     * @param file 清单文件
+     * @return 圆柱体列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<Cylinder> readCylinders(File file) throws IOException {
+        return readCylinders(file, detectFormat(file, file.getName(), null));
+    }
+
+    /**
+     * 按指定格式读取清单文件中的圆柱体数据
+     * @param file 清单文件
+     * @param format 清单格式
+     * @return 圆柱体列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<Cylinder> readCylinders(File file, Format format) throws IOException {
+        List<Cylinder> cylinders = new ArrayList<>();
+        forEachCylinder(file, format, cylinders::add);
+        return cylinders;
+    }
+
+    /**
+     * 按指定格式逐条读取清单文件中的圆柱体数据
+     * @param file 清单文件
+     * @param format 清单格式
+     * @param consumer 每读取一条即回调一次
+     * @throws IOException 文件读取异常
+     */
+    public static void forEachCylinder(File file, Format format, Consumer<Cylinder> consumer) throws IOException {
+        switch (format) {
+            case CSV:
+                CsvManifestReader.read(file, consumer);
+                break;
+            case BINARY:
+                BinaryManifestReader.read(file, consumer);
+                break;
+            default:
+                ExcelUtil.forEachCylinder(file, consumer);
+        }
+    }
+
+    /**
+     * 识别清单格式
+     * 优先按扩展名识别，其次按内容类型；内容类型为 application/octet-stream 时
+     * 检查文件头，不是Excel文件即视为二进制清单
+     * @param file 清单文件
+     * @param fileName 原始文件名，可以为空
+     * @param contentType 内容类型，可以为空
+     * @return 清单格式
+     * @throws IOException 文件读取异常
+     */
+    public static Format detectFormat(File file, String fileName, String contentType) throws IOException {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        if (name.endsWith(".bin")) {
+            return Format.BINARY;
+        }
+        if (name.endsWith(".xlsx") || name.endsWith(".xls")) {
+            return Format.EXCEL;
+        }
+
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("text/csv") || type.startsWith("application/csv") || type.startsWith("text/plain")) {
+            return Format.CSV;
+        }
+        if (type.startsWith("application/octet-stream")) {
+            FileMagic magic = FileMagic.valueOf(file);
+            return magic == FileMagic.OOXML || magic == FileMagic.OLE2 ? Format.EXCEL : Format.BINARY;
+        }
+        return Format.EXCEL;
+    }
+}